@@ -3,27 +3,6 @@ public class MagicSquare {
     private int order;
     private int[][] square;
 
-    private int[] getNextPos(int[] cntPos){
-        int[] nextPos = new int[2];
-        if (cntPos[0] == 0 && cntPos[1] != this.order - 1){
-            nextPos[0] = this.order - 1;
-            nextPos[1] = cntPos[1] + 1;
-        }
-        if (cntPos[0] != 0 && cntPos[1] == this.order - 1){
-            nextPos[0] = cntPos[0] - 1;
-            nextPos[1] = 0;
-        }
-        if (cntPos[0] == 0 && cntPos[1] == this.order - 1){
-            nextPos[0] = cntPos[0] + 1;
-            nextPos[1] = cntPos[1];
-        }
-        if (cntPos[0] != 0 && cntPos[1] != this.order - 1){
-            nextPos[0] = cntPos[0] - 1;
-            nextPos[1] = cntPos[1] + 1;
-        }
-        return nextPos;
-    }
-
     public MagicSquare(int order) throws Exception{
         if (order % 2 == 0)
             throw new Exception("Order should be odd!");
@@ -31,26 +10,18 @@ public class MagicSquare {
         this.square = new int[order][order];
     }
 
-    public int[][] generate(){
-        int value = 1;
-        int[] cntPos = new int[2];
-        cntPos[0] = 0;
-        cntPos[1] = this.order / 2;
-        this.square[cntPos[0]][cntPos[1]] = value;
-        value++;
+    //closed form of the Siamese method (start at the top middle, move up-right, drop down on collision)
+    private int getValue(int row, int col){
+        int n = this.order;
+        return n * ((row + col + n / 2 + 1) % n) + (row + 2 * col + 1) % n + 1;
+    }
 
-        while (value <= this.order * this.order){
-            int[] nextPos=this.getNextPos(cntPos);
-            if (this.square[nextPos[0]][nextPos[1]] == 0){
-                cntPos = nextPos;
-            }
-            else{
-                cntPos[0]++;
+    public int[][] generate(){
+        for (int i = 0; i < this.order; i++) {
+            for (int j = 0; j < this.order; j++) {
+                this.square[i][j] = this.getValue(i, j);
             }
-            this.square[cntPos[0]][cntPos[1]] = value;
-            value++;
         }
-
         return this.square;
     }
 
@@ -0,0 +1,51 @@
+package com.example.demo;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+//GET /magicSquare end to end through MockMvc: authentication, cache, content negotiation and serialization;
+//MockMvc buffers the whole body, hence the smaller orders than in the other benchmarks
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ControllerBenchmark {
+
+    private static final String AUTH = "Basic " + Base64.getEncoder().encodeToString("auth:password".getBytes());
+
+    @Param({"3", "101", "1001", "2001"})
+    private int order;
+
+    @Param({"application/json", "application/octet-stream"})
+    private String accept;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        MagicSquareCache cache = new MagicSquareCache(cached ? 1L << 30 : 0);
+        mockMvc = MockMvcBuilders.standaloneSetup(new MagicSquareController(cache))
+                .setMessageConverters(WebConfig.magicSquareConverters(cache).toArray(new AbstractMagicSquareHttpMessageConverter[0]))
+                .build();
+    }
+
+    @Benchmark
+    public int magicSquare() throws Exception {
+        return mockMvc.perform(get("/magicSquare").param("order", String.valueOf(order))
+                .header("Authorization", AUTH).accept(MediaType.parseMediaType(accept)))
+                .andReturn().getResponse().getContentAsByteArray().length;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.example.demo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GenerateBenchmark {
+
+    //orders around the default parallel threshold show where the parallel path starts to win
+    @Param({"3", "63", "127", "255", "511", "1023", "2047", "4095", "10001"})
+    private int order;
+
+    private MagicSquare ms;
+
+    @Setup
+    public void setUp() {
+        ms = new MagicSquare(order, true);
+    }
+
+    @Benchmark
+    public int[] sequential() {
+        return ms.generate(false);
+    }
+
+    @Benchmark
+    public int[] parallel() {
+        return ms.generate(true);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.example.demo;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+//writes an uncached square through each response format into a counting sink
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerializationBenchmark {
+
+    @Param({"3", "101", "1001", "2001", "10001"})
+    private int order;
+
+    @Param({"json", "octet-stream", "varint", "cbor"})
+    private String format;
+
+    private MagicSquare ms;
+    private AbstractMagicSquareHttpMessageConverter converter;
+    private MediaType mediaType;
+
+    @Setup
+    public void setUp() {
+        ms = new MagicSquare(order, true);
+        for (AbstractMagicSquareHttpMessageConverter candidate : WebConfig.magicSquareConverters(null)) {
+            MediaType supported = candidate.getSupportedMediaTypes().get(0);
+            if (supported.getSubtype().endsWith(format)) {
+                converter = candidate;
+                mediaType = supported;
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        CountingOutputMessage message = new CountingOutputMessage();
+        converter.write(ms, mediaType, message);
+        return message.count;
+    }
+
+    static class CountingOutputMessage extends OutputStream implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+    }
+
+}
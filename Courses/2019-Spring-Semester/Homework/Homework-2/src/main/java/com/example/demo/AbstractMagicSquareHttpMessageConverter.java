@@ -0,0 +1,54 @@
+package com.example.demo;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+//base of the response formats of /magicSquare, one subclass per media type family
+public abstract class AbstractMagicSquareHttpMessageConverter extends AbstractHttpMessageConverter<MagicSquare> {
+
+    private MagicSquareCache cache;
+
+    protected AbstractMagicSquareHttpMessageConverter(MediaType... supportedMediaTypes) {
+        super(supportedMediaTypes);
+    }
+
+    //cached squares are encoded once per format and then served from the stored bytes
+    public void setCache(MagicSquareCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MagicSquare.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected MagicSquare readInternal(Class<? extends MagicSquare> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Magic squares are write-only", inputMessage);
+    }
+
+    @Override
+    protected final void writeInternal(MagicSquare ms, HttpOutputMessage outputMessage) throws IOException {
+        byte[] encoded = null;
+        if (cache != null)
+            encoded = cache.getEncoded(ms, this, this::writeSquare);
+        if (encoded != null)
+            outputMessage.getBody().write(encoded);
+        else
+            this.writeSquare(ms, outputMessage.getBody());
+    }
+
+    protected abstract void writeSquare(MagicSquare ms, OutputStream body) throws IOException;
+
+}
@@ -1,9 +1,13 @@
 package com.example.demo;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Base64;
 
 @RestController
@@ -11,18 +15,51 @@ public class MagicSquareController {
 
     final Base64.Decoder decoder = Base64.getDecoder();
 
+    private final MagicSquareCache cache;
+
+    public MagicSquareController(MagicSquareCache cache) {
+        this.cache = cache;
+    }
+
     @RequestMapping("/magicSquare")
     public MagicSquare magicSquare(@RequestHeader(name = "Authorization", defaultValue = "") String auth,
                                    @RequestParam(name = "order", defaultValue = "3") int order){
+        if (this.authenticated(auth))
+            return cache.get(order);
+        return new MagicSquare(0,false);
+    }
+
+    @RequestMapping("/magicSquare/tile")
+    public MagicSquareTile tile(@RequestHeader(name = "Authorization", defaultValue = "") String auth,
+                                @RequestParam(name = "order", defaultValue = "3") int order,
+                                @RequestParam(name = "rowStart", defaultValue = "0") int rowStart,
+                                @RequestParam(name = "rowEnd") int rowEnd,
+                                @RequestParam(name = "colStart", defaultValue = "0") int colStart,
+                                @RequestParam(name = "colEnd") int colEnd){
+        return new MagicSquareTile(order, rowStart, rowEnd, colStart, colEnd, this.authenticated(auth));
+    }
+
+    @PostMapping("/magicSquare/verify")
+    public MagicSquareVerification verify(@RequestHeader(name = "Authorization", defaultValue = "") String auth,
+                                          @RequestHeader(name = "Content-Type", defaultValue = "application/json") MediaType contentType,
+                                          @RequestHeader(name = "Content-Length", defaultValue = "-1") long contentLength,
+                                          InputStream body) throws IOException {
+        if (!this.authenticated(auth))
+            return MagicSquareVerification.failed("Authentication failed!");
+        if (MediaType.APPLICATION_OCTET_STREAM.includes(contentType))
+            return MagicSquareVerification.fromRaw(body, contentLength);
+        if (MagicSquareVarintHttpMessageConverter.VARINT.includes(contentType))
+            return MagicSquareVerification.fromVarint(body, contentLength);
+        return MagicSquareVerification.fromJson(body);
+    }
+
+    private boolean authenticated(String auth){
         if (auth.equals(""))
-            return new MagicSquare(0,false);
+            return false;
         String[] infos = new String(decoder.decode(auth.substring(6))).split(":");
         String username = infos[0];
         String password = infos[1];
-        if (username.equals("auth") && password.equals("password"))
-            return new MagicSquare(order, true);
-        return new MagicSquare(0,false);
+        return username.equals("auth") && password.equals("password");
     }
 
 }
-
@@ -0,0 +1,49 @@
+package com.example.demo;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+//application/octet-stream: int32 order, then order * order int32 cells row by row, all little-endian;
+//a failed request is order 0 followed by the UTF-8 message
+public class MagicSquareRawHttpMessageConverter extends AbstractMagicSquareHttpMessageConverter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public MagicSquareRawHttpMessageConverter() {
+        super(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    @Override
+    protected Long getContentLength(MagicSquare ms, MediaType contentType) {
+        int order = ms.getOrder();
+        if (order == 0)
+            return 4L + ms.getMessage().getBytes(StandardCharsets.UTF_8).length;
+        return 4L + 4L * order * order;
+    }
+
+    @Override
+    protected void writeSquare(MagicSquare ms, OutputStream body) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int order = ms.getOrder();
+        buffer.putInt(order);
+        if (order == 0) {
+            body.write(buffer.array(), 0, buffer.position());
+            body.write(ms.getMessage().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        for (int cell : ms.cells()) {
+            if (buffer.remaining() < 4) {
+                body.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putInt(cell);
+        }
+        body.write(buffer.array(), 0, buffer.position());
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    public static final MediaType CBOR = new MediaType("application", "cbor");
+
+    @Value("${magicSquare.cache.max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    @Value("${magicSquare.parallel-threshold:1024}")
+    private int parallelThreshold;
+
+    @PostConstruct
+    public void configureMagicSquare() {
+        MagicSquare.setParallelThreshold(parallelThreshold);
+    }
+
+    @Bean
+    public MagicSquareCache magicSquareCache() {
+        return new MagicSquareCache(cacheMaxBytes);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.addAll(0, magicSquareConverters(magicSquareCache()));
+    }
+
+    //JSON first so that it stays the default when the client accepts anything
+    static List<AbstractMagicSquareHttpMessageConverter> magicSquareConverters(MagicSquareCache cache) {
+        MagicSquareJacksonHttpMessageConverter json = new MagicSquareJacksonHttpMessageConverter(
+                new JsonFactory(), MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        json.setDefaultCharset(StandardCharsets.UTF_8);
+        List<AbstractMagicSquareHttpMessageConverter> magicSquareConverters = Arrays.asList(
+                json,
+                new MagicSquareRawHttpMessageConverter(),
+                new MagicSquareVarintHttpMessageConverter(),
+                new MagicSquareJacksonHttpMessageConverter(new CBORFactory(), CBOR));
+        magicSquareConverters.forEach(converter -> converter.setCache(cache));
+        return magicSquareConverters;
+    }
+
+}
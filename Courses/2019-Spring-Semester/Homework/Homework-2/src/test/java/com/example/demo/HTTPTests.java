@@ -1,16 +1,28 @@
 package com.example.demo;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 @RunWith(SpringRunner.class)
@@ -44,10 +56,85 @@ public class HTTPTests {
     }
 
     @Test
-    public void testEvenOrder() throws Exception {
+    public void testSquareContent() throws Exception {
+        this.mockMvc.perform(get("/magicSquare?order=3").header("Authorization", info))
+                .andDo(print())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.square[0]").value(contains(8, 1, 6)))
+                .andExpect(jsonPath("$.square[1]").value(contains(3, 5, 7)))
+                .andExpect(jsonPath("$.square[2]").value(contains(4, 9, 2)));
+    }
+
+    @Test
+    public void testRawFormat() throws Exception {
+        byte[] body = this.mockMvc.perform(get("/magicSquare?order=3").header("Authorization", info)
+                .accept(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn().getResponse().getContentAsByteArray();
+        IntBuffer ints = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        assertEquals(IntBuffer.wrap(new int[]{3, 8, 1, 6, 3, 5, 7, 4, 9, 2}), ints);
+    }
+
+    @Test
+    public void testVarintFormat() throws Exception {
+        this.mockMvc.perform(get("/magicSquare?order=3").header("Authorization", info)
+                .accept(MagicSquareVarintHttpMessageConverter.VARINT))
+                .andExpect(content().contentType(MagicSquareVarintHttpMessageConverter.VARINT))
+                .andExpect(content().bytes(new byte[]{3, 16, 13, 10, 5, 4, 4, 5, 10, 13}));
+    }
+
+    @Test
+    public void testCborFormat() throws Exception {
+        byte[] body = this.mockMvc.perform(get("/magicSquare?order=3").header("Authorization", info)
+                .accept(WebConfig.CBOR))
+                .andExpect(content().contentType(WebConfig.CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode resp = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals("Generate magic square successfully!", resp.get("message").asText());
+        assertEquals(4, resp.get("square").get(2).get(0).asInt());
+    }
+
+    @Test
+    public void testCachedResponse() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            this.mockMvc.perform(get("/magicSquare?order=3").header("Authorization", info)
+                    .accept(MagicSquareVarintHttpMessageConverter.VARINT))
+                    .andExpect(content().bytes(new byte[]{3, 16, 13, 10, 5, 4, 4, 5, 10, 13}));
+        }
+    }
+
+    @Test
+    public void testRawFormatError() throws Exception {
+        byte[] body = this.mockMvc.perform(get("/magicSquare?order=2").header("Authorization", info)
+                .accept(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(0, ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN).getInt());
+        assertEquals("There is no magic square of order 2!", new String(body, 4, body.length - 4, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDoublyEvenOrder() throws Exception {
         this.mockMvc.perform(get("/magicSquare?order=4").header("Authorization", info))
                 .andDo(print())
-                .andExpect(jsonPath("$.message").value("Order should be odd!"))
+                .andExpect(jsonPath("$.message").value("Generate magic square successfully!"))
+                .andExpect(jsonPath("$.square.length()").value(4))
+                .andExpect(jsonPath("$.square[3].length()").value(4));
+    }
+
+    @Test
+    public void testSinglyEvenOrder() throws Exception {
+        this.mockMvc.perform(get("/magicSquare?order=6").header("Authorization", info))
+                .andDo(print())
+                .andExpect(jsonPath("$.message").value("Generate magic square successfully!"))
+                .andExpect(jsonPath("$.square.length()").value(6))
+                .andExpect(jsonPath("$.square[5].length()").value(6));
+    }
+
+    @Test
+    public void testOrder2() throws Exception {
+        this.mockMvc.perform(get("/magicSquare?order=2").header("Authorization", info))
+                .andDo(print())
+                .andExpect(jsonPath("$.message").value("There is no magic square of order 2!"))
                 .andExpect(jsonPath("$.square.length()").isEmpty());
     }
 
@@ -67,4 +154,99 @@ public class HTTPTests {
                 .andExpect(jsonPath("$.square.length()").isEmpty());
     }
 
+    @Test
+    public void testTile() throws Exception {
+        this.mockMvc.perform(get("/magicSquare/tile?order=3&rowStart=1&rowEnd=3&colStart=0&colEnd=2").header("Authorization", info))
+                .andDo(print())
+                .andExpect(jsonPath("$.message").value("Generate magic square tile successfully!"))
+                .andExpect(jsonPath("$.tile[0]").value(contains(3, 5)))
+                .andExpect(jsonPath("$.tile[1]").value(contains(4, 9)));
+    }
+
+    @Test
+    public void testTileOfHugeOrder() throws Exception {
+        this.mockMvc.perform(get("/magicSquare/tile?order=1000001&rowStart=999999&rowEnd=1000001&colEnd=3").header("Authorization", info))
+                .andDo(print())
+                .andExpect(jsonPath("$.tile[0]").value(contains(500000500000L, 500000500002L, 500001500005L)))
+                .andExpect(jsonPath("$.tile[1]").value(contains(500000500001L, 500001500004L, 500002500007L)));
+    }
+
+    @Test
+    public void testTileOutOfRange() throws Exception {
+        this.mockMvc.perform(get("/magicSquare/tile?order=3&rowEnd=4&colEnd=1").header("Authorization", info))
+                .andDo(print())
+                .andExpect(jsonPath("$.message").value("Tile should be a non-empty range inside the square!"))
+                .andExpect(jsonPath("$.tile").isEmpty());
+    }
+
+    @Test
+    public void testVerifyJson() throws Exception {
+        this.mockMvc.perform(post("/magicSquare/verify").header("Authorization", info)
+                .contentType(MediaType.APPLICATION_JSON).content("[[2,7,6],[9,5,1],[4,3,8]]"))
+                .andDo(print())
+                .andExpect(jsonPath("$.valid").value(true))
+                .andExpect(jsonPath("$.message").value("This is a magic square!"));
+    }
+
+    @Test
+    public void testVerifyJsonRowSum() throws Exception {
+        this.mockMvc.perform(post("/magicSquare/verify").header("Authorization", info)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"square\":[[2,7,6],[9,1,5],[4,3,8]]}"))
+                .andDo(print())
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.message").value("Column 1 should sum to 15!"));
+    }
+
+    @Test
+    public void testVerifyJsonDuplicate() throws Exception {
+        this.mockMvc.perform(post("/magicSquare/verify").header("Authorization", info)
+                .contentType(MediaType.APPLICATION_JSON).content("[[5,5,5],[5,5,5],[5,5,5]]"))
+                .andDo(print())
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.message").value("Value 5 appears more than once!"));
+    }
+
+    @Test
+    public void testVerifyRoundTrip() throws Exception {
+        MediaType[] formats = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_OCTET_STREAM, MagicSquareVarintHttpMessageConverter.VARINT};
+        for (MediaType format : formats) {
+            byte[] square = this.mockMvc.perform(get("/magicSquare?order=10").header("Authorization", info).accept(format))
+                    .andReturn().getResponse().getContentAsByteArray();
+            this.mockMvc.perform(post("/magicSquare/verify").header("Authorization", info)
+                    .contentType(format).content(square))
+                    .andExpect(jsonPath("$.valid").value(true));
+        }
+    }
+
+    @Test
+    public void testVerifyRawTruncated() throws Exception {
+        this.mockMvc.perform(post("/magicSquare/verify").header("Authorization", info)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[]{3, 0, 0, 0, 8, 0, 0, 0}))
+                .andDo(print())
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.message").value("Square is truncated!"));
+    }
+
+    @Test
+    public void testVerifyOrderLargerThanBody() throws Exception {
+        //order 46340 announced in 8 bytes, rejected before anything is allocated for it
+        this.mockMvc.perform(post("/magicSquare/verify").header("Authorization", info)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[]{(byte) 0x04, (byte) 0xB5, 0, 0, 1, 0, 0, 0}))
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.message").value("Square is truncated!"));
+        this.mockMvc.perform(post("/magicSquare/verify").header("Authorization", info)
+                .contentType(MagicSquareVarintHttpMessageConverter.VARINT).content(new byte[]{(byte) 0x84, (byte) 0xEA, 0x02, 2}))
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.message").value("Square is truncated!"));
+    }
+
+    @Test
+    public void testVerifyVarintOverflow() throws Exception {
+        byte[] square = {3, 4, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 0, 0, 0, 0, 0, 0, 0, 0};
+        this.mockMvc.perform(post("/magicSquare/verify").header("Authorization", info)
+                .contentType(MagicSquareVarintHttpMessageConverter.VARINT).content(square))
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.message").value("Cells should be varints of at most 32 bits!"));
+    }
+
 }
@@ -0,0 +1,69 @@
+package com.example.demo;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MagicSquareCacheTests {
+
+    private static final MagicSquareCache.Encoder ENCODER = (ms, out) -> out.write(new byte[100]);
+
+    @Test
+    public void testHitAndMiss() {
+        MagicSquareCache cache = new MagicSquareCache(1 << 20);
+        MagicSquare ms = cache.get(5);
+        assertSame(ms, cache.get(5));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(4 * 5 * 5, cache.getBytes());
+    }
+
+    @Test
+    public void testInvalidOrderNotCached() {
+        MagicSquareCache cache = new MagicSquareCache(1 << 20);
+        assertEquals("There is no magic square of order 2!", cache.get(2).getMessage());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        MagicSquareCache cache = new MagicSquareCache(4 * (10 * 10 + 12 * 12));
+        MagicSquare ten = cache.get(10);
+        cache.get(11);
+        cache.get(10);
+        cache.get(12);  //over budget, 11 is the least recently used
+        assertEquals(1, cache.getEvictions());
+        assertSame(ten, cache.get(10));
+        assertEquals(4 * (10 * 10 + 12 * 12), cache.getBytes());
+    }
+
+    @Test
+    public void testEncodedOnce() throws Exception {
+        MagicSquareCache cache = new MagicSquareCache(1 << 20);
+        MagicSquare ms = cache.get(3);
+        byte[] encoded = cache.getEncoded(ms, "raw", ENCODER);
+        assertSame(encoded, cache.getEncoded(ms, "raw", (square, out) -> fail()));
+        assertEquals(4 * 3 * 3 + 100, cache.getBytes());
+        assertNull(cache.getEncoded(new MagicSquare(3, true), "raw", ENCODER));
+    }
+
+    @Test
+    public void testTooLargeNotCached() {
+        MagicSquareCache cache = new MagicSquareCache(100);
+        cache.get(9);
+        cache.get(9);
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testEncodedOverBudgetStreamed() throws Exception {
+        MagicSquareCache cache = new MagicSquareCache(4 * 9 * 9 + 50);
+        MagicSquare ms = cache.get(9);
+        assertNull(cache.getEncoded(ms, "raw", ENCODER));
+        assertNull(cache.getEncoded(ms, "raw", (square, out) -> fail()));  //not tried again
+        assertEquals(4 * 9 * 9, cache.getBytes());
+        assertEquals(0, cache.getEvictions());
+        assertSame(ms, cache.get(9));
+    }
+
+}
@@ -6,6 +6,9 @@ import static org.junit.Assert.*;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class MagicSquareTests {
@@ -15,16 +18,15 @@ public class MagicSquareTests {
         int order = 5;
         try {
             MagicSquare ms = new MagicSquare(order, true);
-            int[][] square = ms.generate();
             int sum = 0;
             for (int i = 0; i < order; i++)
-                sum += square[0][i];
+                sum += ms.get(0, i);
 
             //test row
             for (int i = 1; i < order; i++) {
                 int rowSum = 0;
                 for (int j = 0; j < order; j++) {
-                    rowSum += square[i][j];
+                    rowSum += ms.get(i, j);
                 }
                 assertEquals(sum, rowSum);
             }
@@ -33,7 +35,7 @@ public class MagicSquareTests {
             for (int i = 0; i < order; i++) {
                 int colSum = 0;
                 for (int j = 0; j < order; j++) {
-                    colSum += square[j][i];
+                    colSum += ms.get(j, i);
                 }
                 assertEquals(sum, colSum);
             }
@@ -41,8 +43,8 @@ public class MagicSquareTests {
             //test diagonal
             int leftDiagSum = 0, rightDiagSum = 0;
             for (int i = 0; i < order; i++) {
-                leftDiagSum += square[i][i];
-                rightDiagSum += square[order - 1 - i][i];
+                leftDiagSum += ms.get(i, i);
+                rightDiagSum += ms.get(order - 1 - i, i);
             }
             assertEquals(sum, leftDiagSum);
             assertEquals(sum, rightDiagSum);
@@ -52,4 +54,77 @@ public class MagicSquareTests {
         }
     }
 
+    @Test
+    public void testSiameseLayout() {
+        MagicSquare ms = new MagicSquare(3, true);
+        int[] expected = {8, 1, 6, 3, 5, 7, 4, 9, 2};
+        assertArrayEquals(expected, ms.generate());
+        assertEquals(9, ms.get(2, 1));
+        assertEquals(IntBuffer.wrap(new int[]{3, 5, 7}), ms.getRow(1));
+    }
+
+    @Test
+    public void testEvenOrders() {
+        for (int order = 4; order <= 30; order++) {
+            if (order % 2 == 0)
+                assertMagic(order, new MagicSquare(order, true));
+        }
+    }
+
+    @Test
+    public void testOddOrders() {
+        for (int order = 1; order <= 31; order += 2)
+            assertMagic(order, new MagicSquare(order, true));
+    }
+
+    @Test
+    public void testValueOfCell() {
+        for (int order = 3; order <= 12; order++) {
+            MagicSquare ms = new MagicSquare(order, true);
+            for (int i = 0; i < order; i++)
+                for (int j = 0; j < order; j++)
+                    assertEquals(ms.get(i, j), MagicSquare.getValue(order, i, j));
+        }
+    }
+
+    @Test
+    public void testOrderTooLarge() {
+        MagicSquare ms = new MagicSquare(MagicSquare.MAX_ORDER + 1, true);
+        assertEquals("Order should be at most 46340!", ms.getMessage());
+        assertEquals(0, ms.getOrder());
+    }
+
+    @Test
+    public void testParallelGenerate() {
+        for (int order = 99; order <= 102; order++) {
+            MagicSquare ms = new MagicSquare(order, true);
+            int[] square = ms.generate(false);
+            int[] expected = square.clone();
+            Arrays.fill(square, 0);
+            assertArrayEquals(expected, ms.generate(true));
+        }
+    }
+
+    private void assertMagic(int order, MagicSquare ms) {
+        int sum = order * (order * order + 1) / 2;
+        boolean[] seen = new boolean[order * order + 1];
+        int leftDiagSum = 0, rightDiagSum = 0;
+        for (int i = 0; i < order; i++) {
+            int rowSum = 0, colSum = 0;
+            for (int j = 0; j < order; j++) {
+                int value = ms.get(i, j);
+                assertTrue(value >= 1 && value <= order * order && !seen[value]);
+                seen[value] = true;
+                rowSum += value;
+                colSum += ms.get(j, i);
+            }
+            assertEquals(sum, rowSum);
+            assertEquals(sum, colSum);
+            leftDiagSum += ms.get(i, i);
+            rightDiagSum += ms.get(order - 1 - i, i);
+        }
+        assertEquals(sum, leftDiagSum);
+        assertEquals(sum, rightDiagSum);
+    }
+
 }
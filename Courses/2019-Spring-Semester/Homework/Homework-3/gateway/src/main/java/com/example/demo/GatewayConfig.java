@@ -0,0 +1,103 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.path;
+
+//one route per zuul.routes.<name>, tried in the order they are configured; anything else is 404
+@Configuration
+public class GatewayConfig {
+
+    private List<ConnectionProvider> pools = new ArrayList<>();
+
+    @Bean
+    public RouterFunction<ServerResponse> gatewayRoutes(RouteProperties properties, MeterRegistry registry) {
+        RouterFunction<ServerResponse> routes = null;
+        for (Map.Entry<String, RouteProperties.Route> entry : properties.getRoutes().entrySet()) {
+            RouteProperties.Route route = entry.getValue();
+            String pattern = (route.getPath() != null) ? route.getPath() : "/" + entry.getKey() + "/**";
+            String prefix = pattern.endsWith("/**") ? pattern.substring(0, pattern.length() - 3) : pattern;
+            List<String> urls = urls(entry.getKey(), route);
+            LoadBalancer balancer = new LoadBalancer(entry.getKey(), urls, route.getBalancer().getEjectAfterFailures(),
+                    route.getBalancer().getEjectTimeMs(), registry);
+            ProxyHandler handler = new ProxyHandler(prefix, balancer, route.isStripPrefix(),
+                    (route.getSensitiveHeaders() != null) ? route.getSensitiveHeaders() : properties.getSensitiveHeaders(),
+                    webClient(entry.getKey(), route.getPool()));
+            RouterFunction<ServerResponse> function = RouterFunctions.route(path(pattern), handler::proxy);
+            routes = (routes == null) ? function : routes.and(function);
+        }
+        if (routes == null) {
+            throw new IllegalStateException("No route configured, zuul.routes.<name>.url or urls is missing");
+        }
+        return routes;
+    }
+
+    //urls, or else url; a route with neither, or with a blank one, would only fail on its first request
+    private static List<String> urls(String name, RouteProperties.Route route) {
+        List<String> urls = !route.getUrls().isEmpty() ? route.getUrls()
+                : (route.getUrl() != null) ? Collections.singletonList(route.getUrl()) : Collections.emptyList();
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("Route " + name + " has no zuul.routes." + name + ".url or urls");
+        }
+        for (String url : urls) {
+            if (url == null || url.trim().isEmpty()) {
+                throw new IllegalStateException("Route " + name + " has a blank url in " + urls);
+            }
+        }
+        return urls;
+    }
+
+    //a pool of kept-alive connections per route, so that a burst on one service neither opens a connection per
+    //request nor takes the connections of another; its gauges are under
+    ///actuator/metrics/reactor.netty.connection.provider.<name>.{total,active,idle,pending}.connections
+    private WebClient webClient(String name, RouteProperties.Pool pool) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(name)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getMaxPending())
+                .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(pool.getMaxIdleTimeMs()))
+                .metrics(true);
+        if (pool.getMaxLifeTimeMs() >= 0) {
+            builder.maxLifeTime(Duration.ofMillis(pool.getMaxLifeTimeMs()));
+        }
+        ConnectionProvider provider = builder.build();
+        pools.add(provider);
+
+        HttpClient client = HttpClient.create(provider)
+                .keepAlive(true)
+                .tcpConfiguration(tcp -> tcp
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeoutMs())
+                        .option(ChannelOption.SO_KEEPALIVE, true)
+                        .option(ChannelOption.TCP_NODELAY, true));
+        if (pool.isH2c()) {
+            client = client.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C);
+        }
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(client)).build();
+    }
+
+    @PreDestroy
+    public void close() {
+        for (ConnectionProvider provider : pools) {
+            provider.dispose();
+        }
+    }
+
+}
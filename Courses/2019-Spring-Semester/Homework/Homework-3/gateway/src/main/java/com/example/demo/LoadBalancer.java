@@ -0,0 +1,177 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//picks an instance of a route's service for each request: the better of two picked at random, by latency times
+//requests in flight, which keeps slow or busy instances lightly loaded without every request going to the same
+//one; an instance that fails several requests in a row is left out for a while, unless all of them are
+public class LoadBalancer {
+
+    //weight of the latest latency in the moving average
+    private static final double alpha = 0.3;
+
+    //so that an instance not measured yet, or very fast, still counts its requests in flight
+    private static final long minLatency = 1000 * 1000;  //1 millisecond
+
+    private final Instance[] instances;
+
+    private final int ejectAfterFailures;
+
+    private final long ejectTimeMs;
+
+    public LoadBalancer(String route, List<String> urls, int ejectAfterFailures, long ejectTimeMs,
+                        MeterRegistry registry) {
+        this.instances = new Instance[urls.size()];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = new Instance(urls.get(i));
+            instances[i].register(route, registry);
+        }
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectTimeMs = ejectTimeMs;
+    }
+
+    List<Instance> getInstances() {
+        return Arrays.asList(instances);
+    }
+
+    public Instance choose() {
+        if (instances.length == 1) {
+            return instances[0];
+        }
+        long now = System.currentTimeMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(instances.length);
+        int j = random.nextInt(instances.length - 1);
+        if (j >= i) {
+            j++;
+        }
+        Instance first = instances[i];
+        Instance second = instances[j];
+        boolean firstUp = first.isUp(now);
+        boolean secondUp = second.isUp(now);
+        if (firstUp != secondUp) {
+            return firstUp ? first : second;
+        }
+        if (!firstUp) {
+            //both ejected, take any that is not, or the better of the two if none is
+            for (Instance instance : instances) {
+                if (instance.isUp(now)) {
+                    return instance;
+                }
+            }
+        }
+        return (first.cost() <= second.cost()) ? first : second;
+    }
+
+    public class Instance {
+
+        private final String url;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        //moving average of the time to the response headers, in nanoseconds; updates may race and get lost,
+        //which only makes it a little less smooth
+        private volatile double latency = 0;
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private volatile long ejectedUntil = 0;
+
+        Instance(String url) {
+            this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public Call start() {
+            outstanding.incrementAndGet();
+            return new Call(this, System.nanoTime());
+        }
+
+        double getLatency() {
+            return latency;
+        }
+
+        boolean isUp(long now) {
+            return ejectedUntil <= now;
+        }
+
+        double cost() {
+            return Math.max(latency, minLatency) * (outstanding.get() + 1);
+        }
+
+        void end(long start, boolean ok) {
+            outstanding.decrementAndGet();
+            if (ok) {
+                long elapsed = System.nanoTime() - start;
+                latency = (latency == 0) ? elapsed : alpha * elapsed + (1 - alpha) * latency;
+                failures.set(0);
+            }
+            else if (failures.incrementAndGet() >= ejectAfterFailures) {
+                failures.set(0);
+                ejectedUntil = System.currentTimeMillis() + ejectTimeMs;
+            }
+        }
+
+        private void register(String route, MeterRegistry registry) {
+            if (registry == null) {
+                return;
+            }
+            Gauge.builder("gateway.instance.outstanding", outstanding, AtomicInteger::get)
+                    .tags("route", route, "url", url).register(registry);
+            Gauge.builder("gateway.instance.latency", this, instance -> instance.latency / 1e6)
+                    .baseUnit("milliseconds").tags("route", route, "url", url).register(registry);
+            Gauge.builder("gateway.instance.ejected", this,
+                    instance -> instance.isUp(System.currentTimeMillis()) ? 0 : 1)
+                    .tags("route", route, "url", url).register(registry);
+        }
+
+    }
+
+    //one request to an instance, ended once whichever way it goes
+    public static class Call {
+
+        private final Instance instance;
+
+        private final long start;
+
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        Call(Instance instance, long start) {
+            this.instance = instance;
+            this.start = start;
+        }
+
+        //502, 503 and 504 say more about the instance than about the request, unlike other errors
+        public void end(HttpStatus status) {
+            end(status != HttpStatus.BAD_GATEWAY && status != HttpStatus.SERVICE_UNAVAILABLE
+                    && status != HttpStatus.GATEWAY_TIMEOUT);
+        }
+
+        //not ok if the instance could not be reached or failed
+        public void end(boolean ok) {
+            if (ended.compareAndSet(false, true)) {
+                instance.end(start, ok);
+            }
+        }
+
+        //the client went away: not the instance's fault, but its latency is unknown
+        public void cancel() {
+            if (ended.compareAndSet(false, true)) {
+                instance.outstanding.decrementAndGet();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.example.demo;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquireTimeoutException;
+import reactor.netty.internal.shaded.reactor.pool.PoolShutdownException;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//passes the requests of one route on to its url and streams the response back, without blocking a thread
+public class ProxyHandler {
+
+    //hop-by-hop headers, which only make sense on one connection
+    private static final Set<String> HOP_BY_HOP = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer",
+            "transfer-encoding", "upgrade", "host"));
+
+    private final String prefix;
+
+    private final LoadBalancer balancer;
+
+    private final boolean stripPrefix;
+
+    //lower case
+    private final Set<String> sensitiveHeaders;
+
+    private final WebClient webClient;
+
+    public ProxyHandler(String prefix, LoadBalancer balancer, boolean stripPrefix, Set<String> sensitiveHeaders,
+                        WebClient webClient) {
+        this.prefix = prefix;
+        this.balancer = balancer;
+        this.stripPrefix = stripPrefix;
+        this.sensitiveHeaders = sensitiveHeaders.stream()
+                .map(header -> header.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        this.webClient = webClient;
+    }
+
+    public Mono<ServerResponse> proxy(ServerRequest request) {
+        ServerHttpRequest original = request.exchange().getRequest();
+        String path = original.getURI().getRawPath();
+        if (stripPrefix && path.startsWith(prefix)) {
+            path = path.substring(prefix.length());
+        }
+        String query = original.getURI().getRawQuery();
+        LoadBalancer.Instance instance = balancer.choose();
+        String target = instance.getUrl() + (path.isEmpty() ? "/" : path) + (query == null ? "" : "?" + query);
+
+        LoadBalancer.Call call = instance.start();
+        return webClient.method(request.method())
+                .uri(URI.create(target))
+                .headers(headers -> copyRequestHeaders(original, headers))
+                .body(BodyInserters.fromDataBuffers(request.bodyToFlux(DataBuffer.class)))
+                .exchange()
+                .doOnNext(response -> call.end(response.statusCode()))
+                .doOnError(error -> {
+                    if (isPoolError(error)) {
+                        call.cancel();
+                    }
+                    else {
+                        call.end(false);
+                    }
+                })
+                .doOnCancel(call::cancel)
+                .flatMap(response -> ServerResponse.status(response.statusCode())
+                        .headers(headers -> copy(response.headers().asHttpHeaders(), headers))
+                        .body(BodyInserters.fromDataBuffers(response.bodyToFlux(DataBuffer.class))))
+                .onErrorResume(error -> ServerResponse.status(isPoolError(error)
+                        ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_GATEWAY).build());
+    }
+
+    //raised by the route's own pool before any connection to the instance (too many requests pending, none
+    //free in time, or shutting down): the gateway is overloaded, which says nothing about the instance, so it is
+    //503 rather than 502; reactor-netty shades reactor-pool, and an upgrade that moves them fails to compile here
+    private static boolean isPoolError(Throwable error) {
+        return error instanceof PoolAcquirePendingLimitException || error instanceof PoolAcquireTimeoutException
+                || error instanceof PoolShutdownException;
+    }
+
+    //the X-Forwarded-* headers as Zuul added them
+    private void copyRequestHeaders(ServerHttpRequest original, HttpHeaders headers) {
+        copy(original.getHeaders(), headers);
+        String host = original.getHeaders().getFirst(HttpHeaders.HOST);
+        if (host != null) {
+            headers.set("X-Forwarded-Host", host);
+        }
+        headers.set("X-Forwarded-Proto", original.getURI().getScheme());
+        if (original.getURI().getPort() >= 0) {
+            headers.set("X-Forwarded-Port", String.valueOf(original.getURI().getPort()));
+        }
+        if (stripPrefix) {
+            headers.set("X-Forwarded-Prefix", prefix);
+        }
+        InetSocketAddress remote = original.getRemoteAddress();
+        if (remote != null) {
+            String forwardedFor = original.getHeaders().getFirst("X-Forwarded-For");
+            String client = remote.getAddress().getHostAddress();
+            headers.set("X-Forwarded-For", forwardedFor == null ? client : forwardedFor + ", " + client);
+        }
+    }
+
+    private void copy(HttpHeaders from, HttpHeaders to) {
+        from.forEach((name, values) -> {
+            String lowerCase = name.toLowerCase(Locale.ROOT);
+            if (!HOP_BY_HOP.contains(lowerCase) && !sensitiveHeaders.contains(lowerCase)) {
+                to.put(name, values);
+            }
+        });
+    }
+
+}
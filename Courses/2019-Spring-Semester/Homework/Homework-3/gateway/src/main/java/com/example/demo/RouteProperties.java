@@ -0,0 +1,223 @@
+package com.example.demo;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//the routes as they were configured for Zuul, zuul.routes.<name>.url and so on, with Zuul's defaults
+@Component
+@ConfigurationProperties("zuul")
+public class RouteProperties {
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    //request and response headers that are not passed on, unless a route sets its own
+    private Set<String> sensitiveHeaders = new LinkedHashSet<>(Arrays.asList("Cookie", "Set-Cookie", "Authorization"));
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    public Set<String> getSensitiveHeaders() {
+        return sensitiveHeaders;
+    }
+
+    public void setSensitiveHeaders(Set<String> sensitiveHeaders) {
+        this.sensitiveHeaders = sensitiveHeaders;
+    }
+
+    public static class Route {
+
+        //e.g. /login/**; /<name>/** if not set
+        private String path;
+
+        private String url;
+
+        //instances of the service to balance the requests over, instead of url
+        private List<String> urls = new ArrayList<>();
+
+        //whether the path prefix is left out of the request to url
+        private boolean stripPrefix = true;
+
+        private Set<String> sensitiveHeaders;
+
+        private Pool pool = new Pool();
+
+        private Balancer balancer = new Balancer();
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public boolean isStripPrefix() {
+            return stripPrefix;
+        }
+
+        public void setStripPrefix(boolean stripPrefix) {
+            this.stripPrefix = stripPrefix;
+        }
+
+        public Set<String> getSensitiveHeaders() {
+            return sensitiveHeaders;
+        }
+
+        public void setSensitiveHeaders(Set<String> sensitiveHeaders) {
+            this.sensitiveHeaders = sensitiveHeaders;
+        }
+
+        public Pool getPool() {
+            return pool;
+        }
+
+        public void setPool(Pool pool) {
+            this.pool = pool;
+        }
+
+        public Balancer getBalancer() {
+            return balancer;
+        }
+
+        public void setBalancer(Balancer balancer) {
+            this.balancer = balancer;
+        }
+
+    }
+
+    //the connections to the service of one route, zuul.routes.<name>.pool.*
+    public static class Pool {
+
+        private int maxConnections = 200;
+
+        //requests waiting for a connection when all of them are busy, beyond that they fail at once
+        private int maxPending = 1000;
+
+        private long acquireTimeoutMs = 5000;
+
+        private long connectTimeoutMs = 2000;
+
+        //below the keep-alive timeout of the service (20 seconds for Tomcat), so that it never closes a
+        //connection just as the gateway reuses it; checked when a connection is taken from the pool
+        private long maxIdleTimeMs = 15000;
+
+        //-1 for no limit
+        private long maxLifeTimeMs = -1;
+
+        //HTTP/2 over cleartext by upgrading the first request, for services that support it
+        private boolean h2c = false;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+
+        public long getAcquireTimeoutMs() {
+            return acquireTimeoutMs;
+        }
+
+        public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+
+        public long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public long getMaxIdleTimeMs() {
+            return maxIdleTimeMs;
+        }
+
+        public void setMaxIdleTimeMs(long maxIdleTimeMs) {
+            this.maxIdleTimeMs = maxIdleTimeMs;
+        }
+
+        public long getMaxLifeTimeMs() {
+            return maxLifeTimeMs;
+        }
+
+        public void setMaxLifeTimeMs(long maxLifeTimeMs) {
+            this.maxLifeTimeMs = maxLifeTimeMs;
+        }
+
+        public boolean isH2c() {
+            return h2c;
+        }
+
+        public void setH2c(boolean h2c) {
+            this.h2c = h2c;
+        }
+
+    }
+
+    //how the instances in urls are left out when they fail, zuul.routes.<name>.balancer.*
+    public static class Balancer {
+
+        //failed requests in a row, unreachable or 502, 503 or 504
+        private int ejectAfterFailures = 3;
+
+        private long ejectTimeMs = 30 * 1000;
+
+        public int getEjectAfterFailures() {
+            return ejectAfterFailures;
+        }
+
+        public void setEjectAfterFailures(int ejectAfterFailures) {
+            this.ejectAfterFailures = ejectAfterFailures;
+        }
+
+        public long getEjectTimeMs() {
+            return ejectTimeMs;
+        }
+
+        public void setEjectTimeMs(long ejectTimeMs) {
+            this.ejectTimeMs = ejectTimeMs;
+        }
+
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GatewayConfigTests {
+
+    private void assertRejected(RouteProperties.Route route) {
+        RouteProperties properties = new RouteProperties();
+        properties.getRoutes().put("broken", route);
+        GatewayConfig config = new GatewayConfig();
+        try {
+            config.gatewayRoutes(properties, null);
+            fail();
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("broken"));
+        }
+        finally {
+            config.close();
+        }
+    }
+
+    @Test
+    public void testRouteWithoutUrl() {
+        assertRejected(new RouteProperties.Route());
+        RouteProperties.Route blank = new RouteProperties.Route();
+        blank.setUrls(Arrays.asList("http://a", " "));
+        assertRejected(blank);
+    }
+
+}
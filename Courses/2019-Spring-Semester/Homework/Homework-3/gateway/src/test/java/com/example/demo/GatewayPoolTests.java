@@ -0,0 +1,127 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+//the pool of each route against an upstream that holds every request for a while and answers with the port of
+//the connection it came on
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GatewayPoolTests {
+
+    private static final AtomicInteger active = new AtomicInteger();
+
+    private static final AtomicInteger maxActive = new AtomicInteger();
+
+    private static final DisposableServer upstream = HttpServer.create()
+            .host("localhost")
+            .port(0)
+            .route(routes -> routes
+                    .get("/hold", (request, response) -> Mono.fromRunnable(
+                            () -> maxActive.accumulateAndGet(active.incrementAndGet(), Math::max))
+                            .then(Mono.delay(Duration.ofMillis(300)))
+                            .then(response.header("X-Port", String.valueOf(request.remoteAddress().getPort()))
+                                    .sendString(Mono.just("held")).then())
+                            .doFinally(signal -> active.decrementAndGet()))
+                    .get("/port", (request, response) -> response
+                            .header("X-Port", String.valueOf(request.remoteAddress().getPort()))
+                            .sendString(Mono.just("port"))))
+            .bindNow();
+
+    //one connection and one request waiting for it; any failure of the instance ejects it
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        String url = "http://localhost:" + upstream.port();
+        registry.add("zuul.routes.limited.url", () -> url);
+        registry.add("zuul.routes.limited.pool.max-connections", () -> "1");
+        registry.add("zuul.routes.limited.pool.max-pending", () -> "1");
+        registry.add("zuul.routes.limited.pool.max-idle-time-ms", () -> "200");
+        registry.add("zuul.routes.limited.balancer.eject-after-failures", () -> "1");
+        registry.add("zuul.routes.hurried.url", () -> url);
+        registry.add("zuul.routes.hurried.pool.max-connections", () -> "1");
+        registry.add("zuul.routes.hurried.pool.acquire-timeout-ms", () -> "100");
+        registry.add("zuul.routes.hurried.balancer.eject-after-failures", () -> "1");
+    }
+
+    @AfterClass
+    public static void stopUpstream() {
+        upstream.disposeNow();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private List<ClientResponse> concurrently(String path, int requests) {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        return Flux.range(0, requests)
+                .flatMap(i -> client.get().uri(path).exchange()
+                        .flatMap(response -> response.releaseBody().thenReturn(response)))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+    }
+
+    private long count(List<ClientResponse> responses, HttpStatus status) {
+        return responses.stream().filter(response -> response.statusCode() == status).count();
+    }
+
+    private boolean isEjected(String route) {
+        return registry.get("gateway.instance.ejected").tag("route", route).gauge().value() > 0;
+    }
+
+    private String port(String path) {
+        return WebClient.create("http://localhost:" + port).get().uri(path).exchange()
+                .map(response -> response.headers().asHttpHeaders().getFirst("X-Port"))
+                .block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testMaxConnectionsAndPending() {
+        maxActive.set(0);
+        List<ClientResponse> responses = concurrently("/limited/hold", 3);
+        assertEquals(1, maxActive.get());  //the pending one waited for the connection
+        assertEquals(2, count(responses, HttpStatus.OK));
+        assertEquals(1, count(responses, HttpStatus.SERVICE_UNAVAILABLE));  //more than max-pending
+        assertFalse(isEjected("limited"));
+    }
+
+    @Test
+    public void testAcquireTimeout() {
+        List<ClientResponse> responses = concurrently("/hurried/hold", 2);
+        assertEquals(1, count(responses, HttpStatus.OK));
+        assertEquals(1, count(responses, HttpStatus.SERVICE_UNAVAILABLE));
+        assertFalse(isEjected("hurried"));  //the gateway's fault, not the instance's
+    }
+
+    @Test
+    public void testIdleConnectionsEvicted() throws Exception {
+        String first = port("/limited/port");
+        assertEquals(first, port("/limited/port"));  //kept alive
+        Thread.sleep(500);
+        assertNotEquals(first, port("/limited/port"));
+    }
+
+}
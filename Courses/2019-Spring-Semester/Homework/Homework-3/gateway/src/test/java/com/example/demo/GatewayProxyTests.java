@@ -0,0 +1,138 @@
+package com.example.demo;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+//against an upstream started here, which answers with the path and the names of the headers it got
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GatewayProxyTests {
+
+    private static final DisposableServer upstream = HttpServer.create()
+            .host("localhost")
+            .port(0)
+            .route(routes -> routes
+                    .get("/slow", (request, response) -> response
+                            .header("Content-Type", MediaType.TEXT_PLAIN_VALUE)
+                            .sendString(Flux.concat(Mono.just("first\n"),
+                                    Mono.delay(Duration.ofSeconds(2)).thenReturn("second\n"))))
+                    .route(request -> true, (request, response) -> response
+                            .header("X-Path", request.uri())
+                            .header("X-Seen", request.requestHeaders().names().stream()
+                                    .map(name -> name.toLowerCase(Locale.ROOT)).collect(Collectors.joining(",")))
+                            .header("X-Upstream", "yes")
+                            .header("Proxy-Authenticate", "Basic")
+                            .header("Set-Cookie", "session=1")
+                            .send(request.receive().retain())))
+            .bindNow();
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) throws IOException {
+        String url = "http://localhost:" + upstream.port();
+        registry.add("zuul.routes.svc.url", () -> url);
+        registry.add("zuul.routes.keep.url", () -> url);
+        registry.add("zuul.routes.keep.strip-prefix", () -> "false");
+        String down = "http://localhost:" + unusedPort();
+        registry.add("zuul.routes.down.url", () -> down);
+    }
+
+    @AfterClass
+    public static void stopUpstream() {
+        upstream.disposeNow();
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void testPathStripped() {
+        webTestClient.get().uri("/svc/a/b?c=d").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Path", "/a/b?c=d");
+        webTestClient.get().uri("/keep/a?c=d").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Path", "/keep/a?c=d");
+    }
+
+    @Test
+    public void testHopByHopAndSensitiveHeadersDropped() {
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/svc/headers")
+                .header("Proxy-Authorization", "Basic x")
+                .header("TE", "trailers")
+                .header("Cookie", "session=1")
+                .header("X-Custom", "1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Upstream", "yes")
+                .expectHeader().doesNotExist("Proxy-Authenticate")
+                .expectHeader().doesNotExist("Set-Cookie");
+        List<String> seen = Arrays.asList(response.returnResult(String.class)
+                .getResponseHeaders().getFirst("X-Seen").split(","));
+        assertTrue(seen.toString(), seen.contains("x-custom"));
+        assertTrue(seen.toString(), seen.contains("x-forwarded-prefix"));
+        assertFalse(seen.toString(), seen.contains("proxy-authorization"));
+        assertFalse(seen.toString(), seen.contains("te"));
+        assertFalse(seen.toString(), seen.contains("cookie"));
+    }
+
+    @Test
+    public void testUnknownRoute() {
+        webTestClient.get().uri("/nothing/here").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testUpstreamDown() {
+        webTestClient.get().uri("/down/a").exchange().expectStatus().isEqualTo(HttpStatus.BAD_GATEWAY);
+    }
+
+    @Test
+    public void testRequestBodyPassedOn() {
+        webTestClient.post().uri("/svc/echo")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue("hello")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("hello");
+    }
+
+    //the first chunk comes through while the upstream is still writing
+    @Test
+    public void testResponseBodyStreamed() {
+        long start = System.nanoTime();
+        Flux<String> body = webTestClient.get().uri("/svc/slow").exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseBody();
+        assertEquals("first", body.blockFirst(Duration.ofSeconds(5)));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
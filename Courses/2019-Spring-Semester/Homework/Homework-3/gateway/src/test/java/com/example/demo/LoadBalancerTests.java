@@ -0,0 +1,114 @@
+package com.example.demo;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LoadBalancerTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private LoadBalancer balancer(int ejectAfterFailures, long ejectTimeMs, String... urls) {
+        return new LoadBalancer("tests", Arrays.asList(urls), ejectAfterFailures, ejectTimeMs, null);
+    }
+
+    private Map<String, Integer> choices(LoadBalancer balancer, int times) {
+        Map<String, Integer> choices = new HashMap<>();
+        for (int i = 0; i < times; i++) {
+            choices.merge(balancer.choose().getUrl(), 1, Integer::sum);
+        }
+        return choices;
+    }
+
+    @Test
+    public void testBetterOfTwoChoices() {
+        LoadBalancer balancer = balancer(3, 30000, "http://a", "http://b/", "http://c");
+        List<LoadBalancer.Instance> instances = balancer.getInstances();
+        assertEquals("http://b", instances.get(1).getUrl());
+        for (int i = 0; i < 5; i++) {
+            instances.get(0).start();
+        }
+        instances.get(1).start();
+
+        //the busiest one loses to whichever it is paired with, the idle one wins both of its pairs
+        Map<String, Integer> choices = choices(balancer, 3000);
+        assertNull(choices.get("http://a"));
+        assertTrue(choices.toString(), choices.get("http://c") > choices.get("http://b"));
+    }
+
+    @Test
+    public void testLatencyMovingAverage() {
+        LoadBalancer balancer = balancer(3, 30000, "http://a", "http://b");
+        LoadBalancer.Instance slow = balancer.getInstances().get(0);
+        LoadBalancer.Instance fast = balancer.getInstances().get(1);
+
+        slow.start();
+        slow.end(System.nanoTime() - 10 * MS, true);  //the first one is taken as it is
+        assertEquals(10 * MS, slow.getLatency(), MS);
+        slow.start();
+        slow.end(System.nanoTime() - 20 * MS, true);
+        assertEquals(13 * MS, slow.getLatency(), MS);  //0.3 * 20 + 0.7 * 10
+        slow.start();
+        slow.end(System.nanoTime() - 1000 * MS, false);  //a failure says nothing about the latency
+        assertEquals(13 * MS, slow.getLatency(), MS);
+
+        fast.start();
+        fast.end(System.nanoTime() - 2 * MS, true);
+        assertEquals(Integer.valueOf(100), choices(balancer, 100).get("http://b"));
+
+        //until it is busy enough to cost more than the slow one
+        for (int i = 0; i < 7; i++) {
+            fast.start();
+        }
+        assertEquals(Integer.valueOf(100), choices(balancer, 100).get("http://a"));
+    }
+
+    @Test
+    public void testEjectionAndReadmission() throws Exception {
+        LoadBalancer balancer = balancer(3, 200, "http://a", "http://b");
+        LoadBalancer.Instance failing = balancer.getInstances().get(0);
+        LoadBalancer.Instance busy = balancer.getInstances().get(1);
+        for (int i = 0; i < 10; i++) {
+            busy.start();
+        }
+
+        //failures in a row only: a success in between starts the count again, a cancelled call does not count
+        failing.start().end(HttpStatus.BAD_GATEWAY);
+        failing.start().end(false);
+        failing.start().end(HttpStatus.OK);
+        failing.start().end(HttpStatus.SERVICE_UNAVAILABLE);
+        failing.start().cancel();
+        failing.start().end(HttpStatus.GATEWAY_TIMEOUT);
+        failing.start().end(HttpStatus.NOT_FOUND);  //the request's fault, not the instance's
+        assertTrue(failing.isUp(System.currentTimeMillis()));
+        assertEquals(Integer.valueOf(100), choices(balancer, 100).get("http://a"));
+
+        failing.start().end(false);
+        failing.start().end(false);
+        failing.start().end(false);
+        assertFalse(failing.isUp(System.currentTimeMillis()));
+        assertEquals(Integer.valueOf(100), choices(balancer, 100).get("http://b"));
+
+        Thread.sleep(300);
+        assertTrue(failing.isUp(System.currentTimeMillis()));
+        assertEquals(Integer.valueOf(100), choices(balancer, 100).get("http://a"));
+    }
+
+    @Test
+    public void testAllEjected() {
+        LoadBalancer balancer = balancer(1, 30000, "http://a", "http://b");
+        for (LoadBalancer.Instance instance : balancer.getInstances()) {
+            instance.start().end(false);
+            assertFalse(instance.isUp(System.currentTimeMillis()));
+        }
+        assertNotNull(balancer.choose());
+    }
+
+}
@@ -1,11 +1,19 @@
 package com.example.demo;
 
-import com.alibaba.fastjson.JSONArray;
+import java.nio.IntBuffer;
+import java.util.stream.IntStream;
 
 public class MagicSquare {
 
+    //squares of at least this order are generated in parallel, one task per band of rows
+    //set from magicSquare.parallel-threshold at startup and read by every request thread
+    private static volatile int parallelThreshold = 1024;
+
+    //largest order whose order * order cells still fit in one int[]
+    static final int MAX_ORDER = 46340;
+
     private int order = 0;
-    private int[][] square;
+    private int[] square;  //row-major, cell (i, j) at i * order + j
     private String error = "";
 
     public MagicSquare(int order, boolean auth){
@@ -14,11 +22,13 @@ public class MagicSquare {
         else {
             if (order <= 0)
                 this.error = "Order should be positive!";
-            else if (order % 2 == 0)
-                this.error = "Order should be odd!";
+            else if (order == 2)
+                this.error = "There is no magic square of order 2!";
+            else if (order > MAX_ORDER)
+                this.error = "Order should be at most " + MAX_ORDER + "!";
             else {
                 this.order = order;
-                this.square = new int[order][order];
+                this.square = new int[order * order];
                 this.generate();
             }
         }
@@ -30,61 +40,123 @@ public class MagicSquare {
         return error;
     }
 
-    public JSONArray getSquare(){
-        if (error != "")
-            return null;
-        JSONArray resp = new JSONArray();
-        for (int i = 0; i < order; i++) {
-            JSONArray row = new JSONArray();
-            for (int j = 0; j < order; j++) {
-                row.add(square[i][j]);
-            }
-            resp.add(row);
-        }
-        return resp;
+    public int getOrder(){
+        return this.order;
+    }
+
+    public int get(int row, int col){
+        return this.square[row * this.order + col];
+    }
+
+    public IntBuffer getRow(int row){
+        return IntBuffer.wrap(this.square, row * this.order, this.order).slice().asReadOnlyBuffer();
+    }
+
+    //the backing row-major array, for serializers that write whole rows at once
+    int[] cells(){
+        return this.square;
     }
 
-    private int[] getNextPos(int[] cntPos){
-        int[] nextPos = new int[2];
-        if (cntPos[0] == 0 && cntPos[1] != this.order - 1){
-            nextPos[0] = this.order - 1;
-            nextPos[1] = cntPos[1] + 1;
+    //closed form of the Siamese method (start at the top middle, move up-right, drop down on collision)
+    private static int getOddValue(int n, int row, int col){
+        return n * ((row + col + n / 2 + 1) % n) + (row + 2 * col + 1) % n + 1;
+    }
+
+    //order 4k: fill 1..n*n row by row, then complement the cells on the diagonals of every 4x4 block
+    private static int getDoublyEvenValue(int n, int row, int col){
+        int value = row * n + col + 1;
+        int r = row % 4, c = col % 4;
+        if (r == c || r + c == 3)
+            return n * n + 1 - value;
+        return value;
+    }
+
+    //order 4k+2 (Strachey): one odd square of order m = n/2 in each quadrant, shifted by
+    //0 (top-left), m*m (bottom-right), 2m*m (top-right) and 3m*m (bottom-left), then some columns swapped
+    private static int getSinglyEvenValue(int n, int row, int col){
+        int m = n / 2, k = m / 2, area = m * m;
+        int r = row % m, c = col % m;
+        boolean bottom = row >= m;
+        int offset;
+        if (col < m) {  //left half: swap top-left and bottom-left in the leftmost k columns, shifted by one in the middle row
+            boolean swapped = (r == k) ? (c >= 1 && c <= k) : (c < k);
+            offset = (bottom != swapped) ? 3 * area : 0;
         }
-        if (cntPos[0] != 0 && cntPos[1] == this.order - 1){
-            nextPos[0] = cntPos[0] - 1;
-            nextPos[1] = 0;
+        else {  //right half: swap top-right and bottom-right in the rightmost k-1 columns
+            boolean swapped = c > m - k;
+            offset = (bottom != swapped) ? area : 2 * area;
         }
-        if (cntPos[0] == 0 && cntPos[1] == this.order - 1){
-            nextPos[0] = cntPos[0] + 1;
-            nextPos[1] = cntPos[1];
+        return getOddValue(m, r, c) + offset;
+    }
+
+    private int getValue(int row, int col){
+        if (this.order % 2 == 1)
+            return getOddValue(this.order, row, col);
+        if (this.order % 4 == 0)
+            return getDoublyEvenValue(this.order, row, col);
+        return getSinglyEvenValue(this.order, row, col);
+    }
+
+    //the same formulas in long arithmetic, for orders too large to store (order * order overflows int);
+    //generate() keeps the int versions above, which are markedly faster
+    private static long getOddValue(long n, long row, long col){
+        return n * ((row + col + n / 2 + 1) % n) + (row + 2 * col + 1) % n + 1;
+    }
+
+    private static long getDoublyEvenValue(long n, long row, long col){
+        long value = row * n + col + 1;
+        long r = row % 4, c = col % 4;
+        if (r == c || r + c == 3)
+            return n * n + 1 - value;
+        return value;
+    }
+
+    private static long getSinglyEvenValue(long n, long row, long col){
+        long m = n / 2, k = m / 2, area = m * m;
+        long r = row % m, c = col % m;
+        boolean bottom = row >= m;
+        long offset;
+        if (col < m) {
+            boolean swapped = (r == k) ? (c >= 1 && c <= k) : (c < k);
+            offset = (bottom != swapped) ? 3 * area : 0;
         }
-        if (cntPos[0] != 0 && cntPos[1] != this.order - 1){
-            nextPos[0] = cntPos[0] - 1;
-            nextPos[1] = cntPos[1] + 1;
+        else {
+            boolean swapped = c > m - k;
+            offset = (bottom != swapped) ? area : 2 * area;
         }
-        return nextPos;
+        return getOddValue(m, r, c) + offset;
     }
 
-    public int[][] generate(){
-        int value = 1;
-        int[] cntPos = new int[2];
-        cntPos[0] = 0;
-        cntPos[1] = this.order / 2;
-        this.square[cntPos[0]][cntPos[1]] = value;
-        value++;
+    //cell (row, col) of the square of the given order, without generating the rest of it
+    public static long getValue(int order, long row, long col){
+        if (order % 2 == 1)
+            return getOddValue(order, row, col);
+        if (order % 4 == 0)
+            return getDoublyEvenValue(order, row, col);
+        return getSinglyEvenValue(order, row, col);
+    }
 
-        while (value <= this.order * this.order){
-            int[] nextPos=this.getNextPos(cntPos);
-            if (this.square[nextPos[0]][nextPos[1]] == 0){
-                cntPos = nextPos;
-            }
-            else{
-                cntPos[0]++;
-            }
-            this.square[cntPos[0]][cntPos[1]] = value;
-            value++;
-        }
+    public static void setParallelThreshold(int threshold){
+        parallelThreshold = threshold;
+    }
+
+    public int[] generate(){
+        return this.generate(this.order >= parallelThreshold);
+    }
 
+    public int[] generate(boolean parallel){
+        if (parallel)
+            IntStream.range(0, this.order).parallel().forEach(this::fillRow);
+        else {
+            for (int i = 0; i < this.order; i++)
+                this.fillRow(i);
+        }
         return this.square;
     }
+
+    private void fillRow(int row){
+        int base = row * this.order;
+        for (int j = 0; j < this.order; j++)
+            this.square[base + j] = this.getValue(row, j);
+    }
 }
@@ -0,0 +1,180 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//LRU cache of generated squares keyed by order, bounded by the bytes held: the cells of each square
+//plus the response bodies already encoded for it, so that a hot request is a plain copy of bytes
+public class MagicSquareCache implements MeterBinder {
+
+    public interface Encoder {
+        void write(MagicSquare ms, OutputStream out) throws IOException;
+    }
+
+    private static class Entry {
+        final MagicSquare square;
+        final Map<Object, byte[]> encoded = new ConcurrentHashMap<>();
+        //formats whose body did not fit the budget, streamed from then on without trying again
+        final Set<Object> tooLarge = ConcurrentHashMap.newKeySet();
+        //guarded by the cache's lock
+        long bytes;
+
+        Entry(MagicSquare square) {
+            this.square = square;
+            this.bytes = 4L * square.getOrder() * square.getOrder();
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public MagicSquareCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public MagicSquare get(int order) {
+        synchronized (this) {
+            Entry entry = entries.get(order);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return entry.square;
+            }
+        }
+        misses.incrementAndGet();
+        //generated outside the lock, a concurrent miss on the same order just builds it twice
+        MagicSquare ms = new MagicSquare(order, true);
+        if (ms.getOrder() != 0)
+            this.put(ms);
+        return ms;
+    }
+
+    //the response body of a cached square in the format identified by key, encoding it on first use;
+    //null when the square is not (or no longer) cached or its body would not fit the budget,
+    //in which case the caller streams it instead
+    public byte[] getEncoded(MagicSquare ms, Object key, Encoder encoder) throws IOException {
+        Entry entry;
+        long budget;
+        synchronized (this) {
+            entry = entries.get(ms.getOrder());
+            if (entry == null || entry.square != ms)
+                return null;
+            //entry.bytes grows under the lock as other formats are cached
+            budget = maxBytes - entry.bytes;
+        }
+        byte[] encoded = entry.encoded.get(key);
+        if (encoded != null || entry.tooLarge.contains(key))
+            return encoded;
+
+        //the body has to fit next to the cells, so more than that is never buffered
+        BoundedOutputStream out = new BoundedOutputStream(budget);
+        try {
+            encoder.write(ms, out);
+        } catch (BudgetExceededException e) {
+            entry.tooLarge.add(key);
+            return null;
+        }
+        encoded = out.toByteArray();
+        synchronized (this) {
+            if (entries.get(ms.getOrder()) == entry && entry.encoded.putIfAbsent(key, encoded) == null) {
+                entry.bytes += encoded.length;
+                bytes += encoded.length;
+                this.evict();
+            }
+        }
+        return encoded;
+    }
+
+    private synchronized void put(MagicSquare ms) {
+        Entry entry = new Entry(ms);
+        if (entry.bytes > maxBytes || entries.containsKey(ms.getOrder()))
+            return;
+        entries.put(ms.getOrder(), entry);
+        bytes += entry.bytes;
+        this.evict();
+    }
+
+    //drop least recently used squares until the budget holds again
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().bytes;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static class BudgetExceededException extends IOException {
+        BudgetExceededException() {
+            super("Encoded square exceeds the cache budget");
+        }
+    }
+
+    private static class BoundedOutputStream extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final long limit;
+
+        BoundedOutputStream(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (buffer.size() + 1L > limit)
+                throw new BudgetExceededException();
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (buffer.size() + (long) len > limit)
+                throw new BudgetExceededException();
+            buffer.write(b, off, len);
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("magicSquare.cache.hits", this, MagicSquareCache::getHits).register(registry);
+        FunctionCounter.builder("magicSquare.cache.misses", this, MagicSquareCache::getMisses).register(registry);
+        FunctionCounter.builder("magicSquare.cache.evictions", this, MagicSquareCache::getEvictions).register(registry);
+        Gauge.builder("magicSquare.cache.bytes", this, MagicSquareCache::getBytes).register(registry);
+    }
+
+}
@@ -1,6 +1,9 @@
 package com.example.demo;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Base64;
 
 @RestController
@@ -8,19 +11,54 @@ public class MagicSquareController {
 
     final Base64.Decoder decoder = Base64.getDecoder();
 
+    private final MagicSquareCache cache;
+
+    public MagicSquareController(MagicSquareCache cache) {
+        this.cache = cache;
+    }
+
     @RequestMapping(value = "/")
     @ResponseBody
     public MagicSquare magicSquare(@RequestHeader(name = "loginInfo", defaultValue = "") String loginInfo,
                                    @RequestParam(name = "order", defaultValue = "3") int order){
+        if (this.authenticated(loginInfo))
+            return cache.get(order);
+        return new MagicSquare(0,false);
+    }
+
+    @RequestMapping(value = "/tile")
+    @ResponseBody
+    public MagicSquareTile tile(@RequestHeader(name = "loginInfo", defaultValue = "") String loginInfo,
+                                @RequestParam(name = "order", defaultValue = "3") int order,
+                                @RequestParam(name = "rowStart", defaultValue = "0") int rowStart,
+                                @RequestParam(name = "rowEnd") int rowEnd,
+                                @RequestParam(name = "colStart", defaultValue = "0") int colStart,
+                                @RequestParam(name = "colEnd") int colEnd){
+        return new MagicSquareTile(order, rowStart, rowEnd, colStart, colEnd, this.authenticated(loginInfo));
+    }
+
+    @PostMapping(value = "/verify")
+    @ResponseBody
+    public MagicSquareVerification verify(@RequestHeader(name = "loginInfo", defaultValue = "") String loginInfo,
+                                          @RequestHeader(name = "Content-Type", defaultValue = "application/json") MediaType contentType,
+                                          @RequestHeader(name = "Content-Length", defaultValue = "-1") long contentLength,
+                                          InputStream body) throws IOException {
+        if (!this.authenticated(loginInfo))
+            return MagicSquareVerification.failed("Authentication failed!");
+        if (MediaType.APPLICATION_OCTET_STREAM.includes(contentType))
+            return MagicSquareVerification.fromRaw(body, contentLength);
+        if (MagicSquareVarintHttpMessageConverter.VARINT.includes(contentType))
+            return MagicSquareVerification.fromVarint(body, contentLength);
+        return MagicSquareVerification.fromJson(body);
+    }
+
+    private boolean authenticated(String loginInfo){
         if (loginInfo.equals(""))
-            return new MagicSquare(0,false);
+            return false;
         String[] infos = new String(decoder.decode(loginInfo)).split(":");
         String username = infos[0];
         String password = infos[1];
-        if (username.equals("auth") && password.equals("password"))
-            return new MagicSquare(order, true);
-        return new MagicSquare(0,false);
+        return username.equals("auth") && password.equals("password");
     }
 
 }
-
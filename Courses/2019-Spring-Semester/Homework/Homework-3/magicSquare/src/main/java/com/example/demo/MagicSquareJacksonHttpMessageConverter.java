@@ -0,0 +1,43 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+//writes {"square": [[...], ...], "message": "..."} row by row straight to the response,
+//so no intermediate tree or boxed values are built whatever the order;
+//used for JSON and, with a CBORFactory, for CBOR
+public class MagicSquareJacksonHttpMessageConverter extends AbstractMagicSquareHttpMessageConverter {
+
+    private final JsonFactory factory;
+
+    public MagicSquareJacksonHttpMessageConverter(JsonFactory factory, MediaType... supportedMediaTypes) {
+        super(supportedMediaTypes);
+        this.factory = factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    protected void writeSquare(MagicSquare ms, OutputStream body) throws IOException {
+        try (JsonGenerator generator = factory.createGenerator(body, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeFieldName("square");
+            int order = ms.getOrder();
+            if (order == 0)
+                generator.writeNull();
+            else {
+                int[] cells = ms.cells();
+                generator.writeStartArray(order);
+                for (int i = 0; i < order; i++)
+                    generator.writeArray(cells, i * order, order);
+                generator.writeEndArray();
+            }
+            generator.writeStringField("message", ms.getMessage());
+            generator.writeEndObject();
+        }
+    }
+
+}
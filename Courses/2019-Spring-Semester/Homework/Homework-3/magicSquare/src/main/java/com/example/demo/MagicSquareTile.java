@@ -0,0 +1,75 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+//rows [rowStart, rowEnd) and columns [colStart, colEnd) of the square of the given order;
+//cells are computed one by one while being written, the square itself is never built
+@JsonSerialize(using = MagicSquareTile.Serializer.class)
+public class MagicSquareTile {
+
+    static final long MAX_CELLS = 1 << 20;
+
+    private int order = 0;
+    private int rowStart, rowEnd, colStart, colEnd;
+    private String error = "";
+
+    public MagicSquareTile(int order, int rowStart, int rowEnd, int colStart, int colEnd, boolean auth){
+        if (!auth)
+            this.error = "Authentication failed!";
+        else if (order <= 0)
+            this.error = "Order should be positive!";
+        else if (order == 2)
+            this.error = "There is no magic square of order 2!";
+        else if (rowStart < 0 || rowStart >= rowEnd || rowEnd > order || colStart < 0 || colStart >= colEnd || colEnd > order)
+            this.error = "Tile should be a non-empty range inside the square!";
+        else if ((long) (rowEnd - rowStart) * (colEnd - colStart) > MAX_CELLS)
+            this.error = "Tile should have at most " + MAX_CELLS + " cells!";
+        else {
+            this.order = order;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+            this.colStart = colStart;
+            this.colEnd = colEnd;
+        }
+    }
+
+    public String getMessage(){
+        if (error == "")
+            return "Generate magic square tile successfully!";
+        return error;
+    }
+
+    public static class Serializer extends StdSerializer<MagicSquareTile> {
+
+        public Serializer() {
+            super(MagicSquareTile.class);
+        }
+
+        @Override
+        public void serialize(MagicSquareTile tile, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName("tile");
+            if (tile.order == 0)
+                generator.writeNull();
+            else {
+                generator.writeStartArray(tile.rowEnd - tile.rowStart);
+                for (int i = tile.rowStart; i < tile.rowEnd; i++) {
+                    generator.writeStartArray(tile.colEnd - tile.colStart);
+                    for (int j = tile.colStart; j < tile.colEnd; j++)
+                        generator.writeNumber(MagicSquare.getValue(tile.order, i, j));
+                    generator.writeEndArray();
+                }
+                generator.writeEndArray();
+            }
+            generator.writeStringField("message", tile.getMessage());
+            generator.writeEndObject();
+        }
+
+    }
+
+}
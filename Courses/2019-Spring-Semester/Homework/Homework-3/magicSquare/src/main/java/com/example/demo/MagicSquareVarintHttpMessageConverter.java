@@ -0,0 +1,55 @@
+package com.example.demo;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+//application/x-magic-square-varint: varint order, then every cell row by row as the zigzag varint
+//of its difference from the previous cell (the first one from 0), usually 2-3 bytes per cell;
+//a failed request is order 0 followed by the UTF-8 message
+public class MagicSquareVarintHttpMessageConverter extends AbstractMagicSquareHttpMessageConverter {
+
+    public static final MediaType VARINT = new MediaType("application", "x-magic-square-varint");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public MagicSquareVarintHttpMessageConverter() {
+        super(VARINT);
+    }
+
+    @Override
+    protected void writeSquare(MagicSquare ms, OutputStream body) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int order = ms.getOrder();
+        int length = putVarint(buffer, 0, order);
+        if (order == 0) {
+            body.write(buffer, 0, length);
+            body.write(ms.getMessage().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        int previous = 0;
+        for (int cell : ms.cells()) {
+            if (length > BUFFER_SIZE - 5) {
+                body.write(buffer, 0, length);
+                length = 0;
+            }
+            int delta = cell - previous;
+            length = putVarint(buffer, length, (delta << 1) ^ (delta >> 31));
+            previous = cell;
+        }
+        body.write(buffer, 0, length);
+    }
+
+    //LEB128: 7 bits per byte, low bits first, high bit set on all but the last byte
+    private static int putVarint(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+}
@@ -0,0 +1,255 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+//checks a submitted square while reading it: one running sum per column, the current row and both diagonals,
+//plus one bit per value for the permutation; the first violation ends the check without reading further
+public class MagicSquareVerification {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private boolean valid = false;
+    private String message;
+
+    private MagicSquareVerification(String error){
+        if (error == null) {
+            this.valid = true;
+            this.message = "This is a magic square!";
+        }
+        else
+            this.message = error;
+    }
+
+    public static MagicSquareVerification failed(String error){
+        return new MagicSquareVerification(error);
+    }
+
+    public boolean isValid(){
+        return valid;
+    }
+
+    public String getMessage(){
+        return message;
+    }
+
+    //[[...], ...] or {"square": [[...], ...], ...}, as produced by GET /magicSquare
+    public static MagicSquareVerification fromJson(InputStream in) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    boolean square = parser.getCurrentName().equals("square");
+                    token = parser.nextToken();
+                    if (square)
+                        break;
+                    parser.skipChildren();
+                }
+            }
+            if (token != JsonToken.START_ARRAY)
+                return failed("Square should be an array of rows!");
+
+            Checker checker = new Checker();
+            String error = null;
+            while (error == null && (token = parser.nextToken()) == JsonToken.START_ARRAY) {
+                while (error == null && (token = parser.nextToken()) == JsonToken.VALUE_NUMBER_INT)
+                    error = checker.add(parser.getLongValue());
+                if (error == null)
+                    error = (token == JsonToken.END_ARRAY) ? checker.endRow() : "Cells should be integers!";
+            }
+            if (error == null)
+                error = (token == JsonToken.END_ARRAY) ? checker.finish() : "Square should be an array of rows!";
+            return new MagicSquareVerification(error);
+        }
+        catch (JsonParseException e) {
+            return failed("Square should be valid JSON!");
+        }
+    }
+
+    //the application/octet-stream format of GET /magicSquare; contentLength is -1 if unknown
+    public static MagicSquareVerification fromRaw(InputStream in, long contentLength) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        try {
+            int order = Integer.reverseBytes(data.readInt());
+            Checker checker = new Checker();
+            String error = checker.begin(order);
+            if (error == null && contentLength >= 0 && contentLength < 4 + 4L * order * order)
+                error = "Square is truncated!";
+            for (int i = 0; error == null && i < order; i++) {
+                for (int j = 0; error == null && j < order; j++)
+                    error = checker.add(Integer.reverseBytes(data.readInt()));
+                if (error == null)
+                    error = checker.endRow();
+            }
+            if (error == null)
+                error = checker.finish();
+            return new MagicSquareVerification(error);
+        }
+        catch (EOFException e) {
+            return failed("Square is truncated!");
+        }
+    }
+
+    //the application/x-magic-square-varint format of GET /magicSquare; contentLength is -1 if unknown
+    public static MagicSquareVerification fromVarint(InputStream in, long contentLength) throws IOException {
+        InputStream buffered = new BufferedInputStream(in);
+        try {
+            int order = readVarint(buffered);
+            Checker checker = new Checker();
+            String error = checker.begin(order);
+            if (error == null && contentLength >= 0 && contentLength < 1 + (long) order * order)  //a byte per cell at least
+                error = "Square is truncated!";
+            int previous = 0;
+            for (int i = 0; error == null && i < order; i++) {
+                for (int j = 0; error == null && j < order; j++) {
+                    int zigzag = readVarint(buffered);
+                    previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                    error = checker.add(previous);
+                }
+                if (error == null)
+                    error = checker.endRow();
+            }
+            if (error == null)
+                error = checker.finish();
+            return new MagicSquareVerification(error);
+        }
+        catch (EOFException e) {
+            return failed("Square is truncated!");
+        }
+        catch (MalformedVarintException e) {
+            return failed("Cells should be varints of at most 32 bits!");
+        }
+    }
+
+    //the 5th byte only has the top 4 bits of an int left, and no continuation
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0)
+                throw new EOFException();
+            if (shift == 28 && (b & 0xF0) != 0)
+                throw new MalformedVarintException();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new MalformedVarintException();
+    }
+
+    private static class MalformedVarintException extends IOException {
+    }
+
+    //fed cell by cell in row-major order; each step returns the first violation found, or null
+    private static class Checker {
+
+        private static final int PAGE_SHIFT = 16;  //65536 values, 8 KiB per page
+
+        private int order = 0;
+        private long magicSum;
+        private long[] colSums = new long[16];  //until the order is known: the cells of the first row
+        //one bit per value, in pages allocated as the values arrive, so that a large order in the header
+        //costs nothing until its cells are actually sent
+        private long[][] seen;
+        private int row = 0, col = 0;
+        private long rowSum = 0, diagSum = 0, antiDiagSum = 0;
+
+        String begin(int order) {
+            if (order <= 0)
+                return "Order should be positive!";
+            if (order > MagicSquare.MAX_ORDER)
+                return "Order should be at most " + MagicSquare.MAX_ORDER + "!";
+            this.order = order;
+            this.magicSum = (long) order * ((long) order * order + 1) / 2;
+            this.colSums = new long[order];
+            this.seen = new long[(int) (((long) order * order >> PAGE_SHIFT) + 1)][];
+            return null;
+        }
+
+        String add(long value) {
+            if (order == 0) {  //first row of a JSON square, kept until its length gives the order
+                if (col == MagicSquare.MAX_ORDER)
+                    return "Order should be at most " + MagicSquare.MAX_ORDER + "!";
+                if (col == colSums.length)
+                    colSums = Arrays.copyOf(colSums, Math.min(2 * col, MagicSquare.MAX_ORDER));
+                colSums[col++] = value;
+                return null;
+            }
+            if (row == order)
+                return "Square should have " + order + " rows!";
+            if (col == order)
+                return "Row " + row + " should have " + order + " cells!";
+            if (value < 1 || value > (long) order * order)
+                return "Cells should be between 1 and " + (long) order * order + "!";
+            if (!this.markSeen((int) value))
+                return "Value " + value + " appears more than once!";
+            rowSum += value;
+            colSums[col] += value;
+            if (col == row)
+                diagSum += value;
+            if (col == order - 1 - row)
+                antiDiagSum += value;
+            col++;
+            return null;
+        }
+
+        //false if the value was seen already
+        private boolean markSeen(int value) {
+            int page = value >>> PAGE_SHIFT;
+            if (seen[page] == null)
+                seen[page] = new long[1 << (PAGE_SHIFT - 6)];
+            int index = (value >>> 6) & ((1 << (PAGE_SHIFT - 6)) - 1);
+            long bit = 1L << value;
+            if ((seen[page][index] & bit) != 0)
+                return false;
+            seen[page][index] |= bit;
+            return true;
+        }
+
+        String endRow() {
+            if (order == 0) {
+                long[] firstRow = colSums;
+                int length = col;
+                String error = this.begin(length);
+                col = 0;
+                for (int j = 0; error == null && j < length; j++)
+                    error = this.add(firstRow[j]);
+                if (error != null)
+                    return error;
+            }
+            if (col != order)
+                return "Row " + row + " should have " + order + " cells!";
+            if (rowSum != magicSum)
+                return "Row " + row + " should sum to " + magicSum + "!";
+            row++;
+            col = 0;
+            rowSum = 0;
+            return null;
+        }
+
+        String finish() {
+            if (order == 0)
+                return "Square should not be empty!";
+            if (row != order)
+                return "Square should have " + order + " rows!";
+            for (int j = 0; j < order; j++) {
+                if (colSums[j] != magicSum)
+                    return "Column " + j + " should sum to " + magicSum + "!";
+            }
+            if (diagSum != magicSum || antiDiagSum != magicSum)
+                return "Diagonals should sum to " + magicSum + "!";
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.demo;
+
+import java.net.URI;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+//only health and metrics are exposed, on the server's own port
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ManagementEndpointsTests {
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    public void testHealthEndpoint() throws Exception {
+        @SuppressWarnings("rawtypes")
+        ResponseEntity<Map> entity = this.testRestTemplate.getForEntity("/actuator/health", Map.class);
+
+        then(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(entity.getBody().get("status")).isEqualTo("UP");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCacheMetrics() throws Exception {
+        String info = Base64.getEncoder().encodeToString("auth:password".getBytes());
+        for (int i = 0; i < 2; i++) {
+            this.testRestTemplate.exchange(RequestEntity.get(URI.create("/?order=5")).header("loginInfo", info).build(),
+                    Map.class);
+        }
+
+        @SuppressWarnings("rawtypes")
+        ResponseEntity<Map> names = this.testRestTemplate.getForEntity("/actuator/metrics", Map.class);
+        then(names.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then((List<Object>) names.getBody().get("names")).contains("magicSquare.cache.hits", "magicSquare.cache.misses",
+                "magicSquare.cache.evictions", "magicSquare.cache.bytes");
+
+        @SuppressWarnings("rawtypes")
+        ResponseEntity<Map> hits = this.testRestTemplate.getForEntity("/actuator/metrics/magicSquare.cache.hits", Map.class);
+        then(hits.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(hits.getBody().get("measurements").toString()).doesNotContain("value=0.0");
+    }
+
+    @Test
+    public void testOtherEndpointsNotExposed() throws Exception {
+        @SuppressWarnings("rawtypes")
+        ResponseEntity<Map> entity = this.testRestTemplate.getForEntity("/actuator/beans", Map.class);
+
+        then(entity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.example.demo;
+
+import com.example.demo.Model.Item;
+import com.example.demo.Model.ItemStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+//the ArrayList of the original engine as a store, so taking the head shifts every item; it runs inside the new
+//Container like the other stores, with its lock, seqs and kept changes, so it compares data structures only
+public class ArrayListItemStore implements ItemStore {
+
+    private List<Item> items = new ArrayList<Item>();
+
+    @Override
+    public synchronized void add(int value, long date, int priority) {
+        items.add(new Item(value, date));
+    }
+
+    @Override
+    public synchronized Item take(boolean stack) {
+        if (items.isEmpty()) {
+            return null;
+        }
+        return items.remove(stack ? items.size() - 1 : 0);
+    }
+
+    @Override
+    public synchronized Item pollExpired(long deadline) {
+        return (items.isEmpty() || items.get(0).getDate() > deadline) ? null : items.remove(0);
+    }
+
+    @Override
+    public synchronized long peekOldestDate() {
+        return items.isEmpty() ? -1 : items.get(0).getDate();
+    }
+
+    @Override
+    public synchronized boolean hasVisible() {
+        return !items.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    @Override
+    public boolean isPrioritized() {
+        return false;
+    }
+
+    @Override
+    public synchronized void forEachValue(IntConsumer action) {
+        items.forEach(item -> action.accept(item.getValue()));
+    }
+
+    @Override
+    public synchronized List<Item> getItems() {
+        return new ArrayList<Item>(items);
+    }
+
+}
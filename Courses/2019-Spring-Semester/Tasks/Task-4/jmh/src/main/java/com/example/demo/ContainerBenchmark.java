@@ -0,0 +1,103 @@
+package com.example.demo;
+
+import com.example.demo.Model.Container;
+import com.example.demo.Model.Event;
+import com.example.demo.Model.ItemStore;
+import com.example.demo.Model.LinkedItemStore;
+import com.example.demo.Model.PackedItemStore;
+import com.example.demo.Model.PriorityItemStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//produce, consume and check of one container under contention, for each store and for sizes around the
+//threshold (5), where consume switches from the head to the tail
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ContainerBenchmark {
+
+    @Param({"linked", "packed", "priority", "arrayList"})
+    private String store;
+
+    //items in the container when each iteration starts
+    @Param({"0", "4", "5", "6", "10000"})
+    private int size;
+
+    private ScheduledExecutorService expiry;
+
+    private Container container;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        expiry = Executors.newSingleThreadScheduledExecutor();
+        container = new Container(store(), 5, 30 * 1000, 4096, expiry);
+        for (int i = 0; i < size; i++) {
+            container.produce();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        expiry.shutdownNow();
+    }
+
+    private ItemStore store() {
+        switch (store) {
+            case "linked":
+                return new LinkedItemStore();
+            case "packed":
+                return new PackedItemStore();
+            case "priority":
+                return new PriorityItemStore();
+            default:
+                return new ArrayListItemStore();
+        }
+    }
+
+    //producers and consumers apart: the size drifts with whichever side is faster
+    @Benchmark
+    @Group("producersConsumers")
+    @GroupThreads(2)
+    public Event produce() {
+        return container.produce();
+    }
+
+    @Benchmark
+    @Group("producersConsumers")
+    @GroupThreads(2)
+    public Event consume() {
+        return container.consume();
+    }
+
+    //each operation produces one item and consumes one, so the size stays at the parameter
+    @Benchmark
+    @Group("pairs")
+    @GroupThreads(4)
+    public Event produceConsume() {
+        container.produce();
+        return container.consume();
+    }
+
+    //the same with the expiry check of the head running all the time next to them
+    @Benchmark
+    @Group("pairsChecked")
+    @GroupThreads(3)
+    public Event checkedProduceConsume() {
+        container.produce();
+        return container.consume();
+    }
+
+    @Benchmark
+    @Group("pairsChecked")
+    @GroupThreads(1)
+    public void check() {
+        container.check();
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+//HTTP load test against a running service: every thread sends produce, consume and view requests at random,
+//as fast as it can over a kept-alive connection, and the latencies are reported per path
+//
+//usage: LoadTest [baseUrl [threads [seconds [container]]]], e.g. LoadTest http://localhost:8080 8 30 orders
+public class LoadTest {
+
+    static final private String[] paths = {"produce", "consume", "view"};
+
+    //percent of the requests for each path
+    static final private int[] weights = {45, 45, 10};
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = (args.length > 0) ? args[0] : "http://localhost:8080";
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 30;
+        String prefix = baseUrl + "/api/" + ((args.length > 3) ? args[3] + "/" : "");
+
+        System.out.printf("%d threads for %d seconds against %s%n", threads, seconds, prefix);
+        long warmupEnd = System.nanoTime() + Math.min(5, seconds / 5) * 1000000000L;
+        long end = warmupEnd + seconds * 1000000000L;
+        List<Worker> workers = new ArrayList<Worker>();
+        for (int t = 0; t < threads; t++) {
+            Worker worker = new Worker(prefix, warmupEnd, end);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Worker worker : workers) {
+            worker.join();
+        }
+
+        System.out.printf("%-8s %10s %10s %9s %9s %9s %9s %9s %7s%n",
+                "path", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (int p = 0; p < paths.length; p++) {
+            int count = 0;
+            int errors = 0;
+            for (Worker worker : workers) {
+                count += worker.counts[p];
+                errors += worker.errors[p];
+            }
+            long[] latencies = new long[count];
+            int at = 0;
+            for (Worker worker : workers) {
+                System.arraycopy(worker.latencies[p], 0, latencies, at, worker.counts[p]);
+                at += worker.counts[p];
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-8s %10d %10.0f %9.3f %9.3f %9.3f %9.3f %9.3f %7d%n", paths[p], count,
+                    count / (double) seconds, percentile(latencies, 50), percentile(latencies, 90),
+                    percentile(latencies, 99), percentile(latencies, 99.9),
+                    (count == 0) ? 0 : latencies[count - 1] / 1e6, errors);
+        }
+    }
+
+    //in milliseconds
+    static private double percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    static private class Worker extends Thread {
+
+        private String prefix;
+
+        private long warmupEnd;
+
+        private long end;
+
+        //nanoseconds of each measured request, per path
+        private long[][] latencies = new long[paths.length][1024];
+
+        private int[] counts = new int[paths.length];
+
+        private int[] errors = new int[paths.length];
+
+        private byte[] buffer = new byte[8192];
+
+        Worker(String prefix, long warmupEnd, long end) {
+            this.prefix = prefix;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                int p = pick();
+                long start = System.nanoTime();
+                if (start >= end) {
+                    break;
+                }
+                boolean ok = request(prefix + paths[p]);
+                long latency = System.nanoTime() - start;
+                if (start < warmupEnd) {
+                    continue;
+                }
+                if (!ok) {
+                    errors[p]++;
+                    continue;
+                }
+                if (counts[p] == latencies[p].length) {
+                    latencies[p] = Arrays.copyOf(latencies[p], counts[p] * 2);
+                }
+                latencies[p][counts[p]++] = latency;
+            }
+        }
+
+        private int pick() {
+            int r = ThreadLocalRandom.current().nextInt(100);
+            for (int p = 0; p < weights.length; p++) {
+                r -= weights[p];
+                if (r < 0) {
+                    return p;
+                }
+            }
+            return weights.length - 1;
+        }
+
+        //reads the whole body so that the connection is kept alive for the next request
+        private boolean request(String url) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+                int status = connection.getResponseCode();
+                InputStream in = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+                if (in != null) {
+                    try (InputStream body = in) {
+                        while (body.read(buffer) >= 0) {
+                        }
+                    }
+                }
+                return status == 200;
+            }
+            catch (IOException e) {
+                return false;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.example.demo.Config;
+
+import com.example.demo.Model.Containers;
+import com.example.demo.Model.ItemStore;
+import com.example.demo.Model.LinkedItemStore;
+import com.example.demo.Model.PackedItemStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import java.util.function.Supplier;
+
+@Configuration
+public class ContainerConfig {
+
+    //linked: an object per item, read without a lock; packed: 12 bytes per item in primitive arrays, read under a lock
+    @Value("${container.store:linked}")
+    private String store;
+
+    //of containers created on first use
+    @Value("${container.threshold:5}")
+    private int threshold;
+
+    @Value("${container.timeout-ms:30000}")
+    private int timeoutMs;
+
+    @Value("${container.changes-kept:4096}")
+    private int changesKept;
+
+    @Value("${container.max-containers:100000}")
+    private int maxContainers;
+
+    //empty and unused for that long, a container other than the default one is evicted; 0 keeps them all
+    @Value("${container.idle-evict-ms:600000}")
+    private long idleEvictMs;
+
+    @PostConstruct
+    public void configure() {
+        Supplier<ItemStore> storeFactory;
+        if ("linked".equals(store)) {
+            storeFactory = LinkedItemStore::new;
+        }
+        else if ("packed".equals(store)) {
+            storeFactory = PackedItemStore::new;
+        }
+        else {
+            throw new IllegalArgumentException("Unknown container store: " + store);
+        }
+        Containers.configure(storeFactory, threshold, timeoutMs, changesKept, maxContainers, idleEvictMs);
+    }
+
+}
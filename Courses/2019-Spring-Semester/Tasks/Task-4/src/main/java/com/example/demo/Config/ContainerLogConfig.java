@@ -0,0 +1,44 @@
+package com.example.demo.Config;
+
+import com.example.demo.Model.ContainerLogs;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+//persists the containers when container.log.enabled is true, restoring them before any request is served
+@Configuration
+@ConditionalOnProperty(value = "container.log.enabled", havingValue = "true")
+public class ContainerLogConfig {
+
+    @Value("${container.log.dir:container-log}")
+    private String dir;
+
+    //of each container
+    @Value("${container.log.segment-bytes:1048576}")
+    private int segmentBytes;
+
+    @Value("${container.log.sync:interval}")
+    private String sync;
+
+    @Value("${container.log.sync-interval-ms:100}")
+    private long syncIntervalMs;
+
+    @Value("${container.log.compact-interval-ms:60000}")
+    private long compactIntervalMs;
+
+    //one per container, each one restored into the store it was created with
+    @Bean(destroyMethod = "close")
+    @DependsOn("containerConfig")
+    public ContainerLogs containerLogs() throws IOException {
+        ContainerLogs logs = new ContainerLogs(Paths.get(dir), segmentBytes);
+        logs.open();
+        logs.start(sync, syncIntervalMs, compactIntervalMs);
+        return logs;
+    }
+
+}
@@ -2,28 +2,157 @@ package com.example.demo.Controller;
 
 import com.alibaba.fastjson.JSONObject;
 import com.example.demo.Model.Container;
+import com.example.demo.Model.Event;
+import com.example.demo.Model.Waiter;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Collections;
+import java.util.List;
 
 @Controller
 @RequestMapping(value = "/api")
 public class ConsumeController {
 
+    static final private long maxWaitMs = 60 * 1000;  //60 seconds
+
     @ResponseBody
-    @RequestMapping(value = "/consume")
-    public JSONObject consume() {
-        JSONObject resp = new JSONObject();
+    @RequestMapping(value = {"/consume", "/{name:" + ContainerResolver.NAME + "}/consume"})
+    public JSONObject consume(@PathVariable(value = "name", required = false) String name,
+                              @RequestParam(value = "count", required = false) Integer count) {
+        Container container = ContainerResolver.resolve(name);
+        if (count != null && (count < 1 || count > container.getMaxBatch())) {
+            return message("count should be between 1 and " + container.getMaxBatch());
+        }
+        JSONObject resp = tryConsume(container, count);
+        return (resp == null) ? message("container is empty now") : resp;
+    }
 
-        if (Container.isEmpty()) {
-            resp.put("message", "container is empty now");
+    //parks the request without holding a worker thread until an item is produced or waitMs passes
+    @ResponseBody
+    @RequestMapping(value = {"/consume", "/{name:" + ContainerResolver.NAME + "}/consume"}, params = "waitMs")
+    public DeferredResult<JSONObject> consume(@PathVariable(value = "name", required = false) String name,
+                                              @RequestParam(value = "count", required = false) Integer count,
+                                              @RequestParam(value = "waitMs") long waitMs) {
+        Container container = ContainerResolver.resolve(name);
+        DeferredResult<JSONObject> result = new DeferredResult<JSONObject>(Math.max(waitMs, 1));
+        if (waitMs < 0 || waitMs > maxWaitMs) {
+            result.setResult(message("waitMs should be between 0 and " + maxWaitMs));
+            return result;
         }
-        else {
+        if (count != null && (count < 1 || count > container.getMaxBatch())) {
+            result.setResult(message("count should be between 1 and " + container.getMaxBatch()));
+            return result;
+        }
+
+        JSONObject resp = tryConsume(container, count);
+        if (resp != null || waitMs == 0) {
+            result.setResult((resp == null) ? message("container is empty now") : resp);
+            return result;
+        }
+        ConsumeWaiter waiter = new ConsumeWaiter(container, count, result);
+        result.onTimeout(waiter::timeout);
+        result.onCompletion(waiter::abort);  //also after an answer, when there is nothing left to do
+        result.onError(error -> waiter.abort());
+        container.addWaiter(waiter);
+        return result;
+    }
+
+    //null if there was nothing to consume
+    static private JSONObject tryConsume(Container container, Integer count) {
+        JSONObject resp = new JSONObject();
+        if (count == null) {
+            Event change = container.consume();
+            if (change == null) {
+                return null;
+            }
             resp.put("message", "an item consumed");
-            resp.put("container", Container.consume());
+            resp.put("change", change);
         }
+        else {
+            List<Event> changes = container.consume(count);
+            if (changes.isEmpty()) {
+                return null;
+            }
+            resp.put("message", changes.size() + " items consumed");
+            resp.put("changes", changes);
+        }
+        return resp;
+    }
 
+    static private JSONObject message(String message) {
+        JSONObject resp = new JSONObject();
+        resp.put("message", message);
         return resp;
     }
 
+    //wake, timeout and abort take turns, so that a timeout never comes in between consuming and answering;
+    //items consumed for a request that went away meanwhile are put back
+    static private class ConsumeWaiter implements Waiter {
+
+        private Container container;
+
+        private Integer count;
+
+        private DeferredResult<JSONObject> result;
+
+        private boolean done = false;
+
+        ConsumeWaiter(Container container, Integer count, DeferredResult<JSONObject> result) {
+            this.container = container;
+            this.count = count;
+            this.result = result;
+        }
+
+        @Override
+        public synchronized boolean wake() {
+            JSONObject resp;
+            while (true) {
+                if (done || result.isSetOrExpired()) {
+                    done = true;
+                    return false;
+                }
+                container = container.current();  //it may have been handed on to the one that took its name
+                resp = tryConsume(container, count);
+                if (resp != null) {
+                    break;
+                }
+                //taken by another consumer first, wait for the next one; unless one came meanwhile, which
+                //found nobody in line to wake, and this waiter is still in line for it to try again
+                container.requeue(this);
+                if (!container.hasVisible() || !container.removeWaiter(this)) {
+                    return true;
+                }
+            }
+            done = true;
+            if (!result.setResult(resp)) {
+                Event change = (Event) resp.get("change");
+                @SuppressWarnings("unchecked")
+                List<Event> changes = (change != null) ? Collections.singletonList(change) : (List<Event>) resp.get("changes");
+                container.putBack(changes);
+            }
+            return true;
+        }
+
+        //answered here rather than with Spring's 503
+        synchronized void timeout() {
+            if (!done) {
+                done = true;
+                container.current().removeWaiter(this);
+                result.setResult(message("container is empty now"));
+            }
+        }
+
+        //the request is over, answered or not: the client went away, or the response failed
+        synchronized void abort() {
+            done = true;
+            container.current().removeWaiter(this);
+        }
+
+    }
+
 }
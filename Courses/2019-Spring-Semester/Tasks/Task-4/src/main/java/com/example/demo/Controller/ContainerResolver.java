@@ -0,0 +1,30 @@
+package com.example.demo.Controller;
+
+import com.example.demo.Model.Container;
+import com.example.demo.Model.Containers;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+//the container a request is for: the one named in the path, or the default one if there is no name
+//requests that only read it do not create it, so that they can not fill the registry
+class ContainerResolver {
+
+    static final String NAME = "[A-Za-z0-9_-]{1,64}";
+
+    static Container resolve(String name) {
+        Container container = Containers.get((name == null) ? Containers.DEFAULT : name);
+        if (container == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many containers");
+        }
+        return container;
+    }
+
+    static Container find(String name) {
+        Container container = Containers.find((name == null) ? Containers.DEFAULT : name);
+        if (container == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "no container " + name);
+        }
+        return container;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.example.demo.Controller;
+
+import com.alibaba.fastjson.JSONObject;
+import com.example.demo.Model.Container;
+import com.example.demo.Model.Containers;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+@Controller
+@RequestMapping(value = "/api")
+public class CreateController {
+
+    static final private String THRESHOLD = "threshold";
+
+    static final private String PRIORITY = "priority";
+
+    //containers are also created on first use, with the configured threshold and timeout
+    //policy is threshold (a queue below the threshold, a stack from it on) or priority (threshold unused)
+    @ResponseBody
+    @RequestMapping(value = "/{name:" + ContainerResolver.NAME + "}/create")
+    public JSONObject create(@PathVariable("name") String name,
+                             @RequestParam(value = "threshold") int threshold,
+                             @RequestParam(value = "timeoutMs") int timeoutMs,
+                             @RequestParam(value = "policy", defaultValue = THRESHOLD) String policy) {
+        JSONObject resp = new JSONObject();
+
+        if (threshold < 0 || timeoutMs < 1) {
+            resp.put("message", "threshold should not be negative and timeoutMs should be positive");
+            return resp;
+        }
+        if (!THRESHOLD.equals(policy) && !PRIORITY.equals(policy)) {
+            resp.put("message", "policy should be " + THRESHOLD + " or " + PRIORITY);
+            return resp;
+        }
+        boolean prioritized = PRIORITY.equals(policy);
+        Container container = Containers.create(name, threshold, timeoutMs, prioritized);
+        if (container == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many containers");
+        }
+        if (container.getThreshold() == threshold && container.getTimeout() == timeoutMs
+                && container.isPrioritized() == prioritized) {
+            resp.put("message", "container " + name + " is ready");
+        }
+        else {
+            resp.put("message", "container " + name + " exists already");
+        }
+        resp.put("threshold", container.getThreshold());
+        resp.put("timeoutMs", container.getTimeout());
+        resp.put("policy", container.isPrioritized() ? PRIORITY : THRESHOLD);
+
+        return resp;
+    }
+
+}
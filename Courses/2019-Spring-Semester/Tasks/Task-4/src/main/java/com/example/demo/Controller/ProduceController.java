@@ -3,20 +3,43 @@ package com.example.demo.Controller;
 import com.alibaba.fastjson.JSONObject;
 import com.example.demo.Model.Container;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 @Controller
 @RequestMapping(value = "/api")
 public class ProduceController {
 
+    static final private long maxDelayMs = 24 * 60 * 60 * 1000;  //1 day
+
     @ResponseBody
-    @RequestMapping(value = "/produce")
-    public JSONObject produce() {
+    @RequestMapping(value = {"/produce", "/{name:" + ContainerResolver.NAME + "}/produce"})
+    public JSONObject produce(@PathVariable(value = "name", required = false) String name,
+                              @RequestParam(value = "count", required = false) Integer count,
+                              @RequestParam(value = "priority", defaultValue = "0") int priority,
+                              @RequestParam(value = "delayMs", defaultValue = "0") long delayMs) {
         JSONObject resp = new JSONObject();
+        Container container = ContainerResolver.resolve(name);
 
-        resp.put("container", Container.produce());
-        resp.put("message", "a new item produced");
+        if ((priority != 0 || delayMs != 0) && !container.isPrioritized()) {
+            resp.put("message", "priority and delayMs need a container created with policy=priority");
+        }
+        else if (delayMs < 0 || delayMs > maxDelayMs) {
+            resp.put("message", "delayMs should be between 0 and " + maxDelayMs);
+        }
+        else if (count == null) {
+            resp.put("change", container.produce(priority, delayMs));
+            resp.put("message", "a new item produced");
+        }
+        else if (count < 1 || count > container.getMaxBatch()) {
+            resp.put("message", "count should be between 1 and " + container.getMaxBatch());
+        }
+        else {
+            resp.put("changes", container.produce(count, priority, delayMs));
+            resp.put("message", count + " new items produced");
+        }
 
         return resp;
     }
@@ -0,0 +1,247 @@
+package com.example.demo.Controller;
+
+import com.alibaba.fastjson.JSONObject;
+import com.example.demo.Model.Container;
+import com.example.demo.Model.Event;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//pushes the changes of a container to every subscriber as server-sent events
+//the dispatcher never blocks: every tick it queues for each subscriber the changes after the latest seq queued
+//for it, in one event shared by the subscribers of a container at the same seq, and senders drain each queue;
+//a subscriber that lets its queue fill up is closed, and reconnecting resumes it from the Last-Event-ID it got;
+//one that finds every sender busy keeps its queue until a later tick, it is not its fault
+//sending blocks while a client is slow to read, so each subscriber is drained by at most one sender at a time
+//and a stalled one only holds up its own sender thread
+@Controller
+@RequestMapping(value = "/api")
+public class StreamController {
+
+    static final private int tick = 100;  //0.1 second
+
+    static final private int heartbeat = 15 * 1000;  //15 seconds
+
+    //a stream is closed after this long, even if the client keeps reading, and it reconnects
+    static final private long streamTimeout = 10 * 60 * 1000;  //10 minutes
+
+    //events waiting to be sent to one subscriber, about 3 seconds of ticks
+    static final private int queueCapacity = 32;
+
+    static final int maxSenders = 256;
+
+    static private Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    static final private ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stream-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //grows with the subscribers being sent to at the same time, and refuses more than maxSenders of them
+    static final private ExecutorService senders = new ThreadPoolExecutor(4, maxSenders, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), runnable -> {
+                Thread thread = new Thread(runnable, "stream-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        dispatcher.scheduleWithFixedDelay(StreamController::dispatch, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @ResponseBody
+    @RequestMapping(value = {"/stream", "/{name:" + ContainerResolver.NAME + "}/stream"})
+    public SseEmitter stream(@PathVariable(value = "name", required = false) String name,
+                             @RequestParam(value = "since", required = false) Long since,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (since == null) {  //an EventSource reconnecting resumes from the id of the last event it got
+            since = lastEventId;
+        }
+        Container container = ContainerResolver.find(name);
+        return subscribe(container, new SseEmitter(streamTimeout), (since == null) ? -1 : since);
+    }
+
+    static SseEmitter subscribe(Container container, SseEmitter emitter, long since) {
+        Subscriber subscriber = new Subscriber(container.watch(), emitter, since);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    //once per subscriber, which kept its container from being evicted until then
+    static private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.container.unwatch();
+        }
+    }
+
+    //subscribers of a container that have been queued the same seq share one serialized event
+    static private void dispatch() {
+        long now = System.currentTimeMillis();
+        Map<Container, Map<Long, Payload>> payloads = new HashMap<Container, Map<Long, Payload>>();
+        for (Subscriber subscriber : subscribers) {
+            Container container = subscriber.container;
+            Payload payload = null;
+            if (subscriber.queued != container.getSeq()) {
+                payload = payloads.computeIfAbsent(container, key -> new HashMap<Long, Payload>())
+                        .computeIfAbsent(subscriber.queued, queued -> payload(container, queued));
+            }
+            else if (now - subscriber.sentAt >= heartbeat && subscriber.queue.isEmpty()) {
+                payload = Payload.HEARTBEAT;
+            }
+            if (payload != null) {
+                if (!subscriber.queue.offer(payload)) {  //too slow to keep up
+                    subscriber.close();
+                    continue;
+                }
+                if (payload != Payload.HEARTBEAT) {
+                    subscriber.queued = payload.seq;
+                }
+            }
+            if (!subscriber.queue.isEmpty()) {  //also what no sender could take on a previous tick
+                subscriber.drain();
+            }
+        }
+    }
+
+    static private Payload payload(Container container, long seen) {
+        List<Event> changes = (seen < 0) ? null : container.getChangesSince(seen);
+        JSONObject data = new JSONObject();
+        if (changes == null) {  //whole container, as of seq
+            Container.Snapshot snapshot = container.getSnapshot();
+            data.put("seq", snapshot.getSeq());
+            data.put("container", snapshot.getValues());
+            return new Payload("snapshot", snapshot.getSeq(), data.toJSONString());
+        }
+        if (changes.isEmpty()) {
+            return null;
+        }
+        long seq = changes.get(changes.size() - 1).getSeq();
+        data.put("seq", seq);
+        data.put("changes", changes);
+        return new Payload("changes", seq, data.toJSONString());
+    }
+
+    static private class Payload {
+
+        //sent when there has been nothing new for a while, to find out whether the client is still there
+        static final Payload HEARTBEAT = new Payload(null, Long.MIN_VALUE, null);
+
+        String name;
+
+        long seq;
+
+        String data;
+
+        Payload(String name, long seq, String data) {
+            this.name = name;
+            this.seq = seq;
+            this.data = data;
+        }
+
+    }
+
+    static private class Subscriber {
+
+        Container container;
+
+        SseEmitter emitter;
+
+        //seq of the latest change queued, -1 before the first snapshot; only used by the dispatcher
+        long queued;
+
+        BlockingQueue<Payload> queue = new ArrayBlockingQueue<Payload>(queueCapacity);
+
+        volatile long sentAt = System.currentTimeMillis();
+
+        //set while a sender drains the queue
+        AtomicBoolean sending = new AtomicBoolean(false);
+
+        volatile boolean closed = false;
+
+        Subscriber(Container container, SseEmitter emitter, long queued) {
+            this.container = container;
+            this.emitter = emitter;
+            this.queued = queued;
+        }
+
+        void drain() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::send);
+            }
+            catch (RejectedExecutionException e) {  //every sender is busy: tried again on the next tick
+                sending.set(false);
+                if (closed) {  //no longer dispatched, and not being sent to, so completing it does not block
+                    emitter.complete();
+                }
+            }
+        }
+
+        //the emitter is locked while a send blocks, so it is completed by the sender, never by the dispatcher
+        void close() {
+            closed = true;
+            remove(this);
+            drain();
+        }
+
+        private void send() {
+            try {
+                Payload payload;
+                while (!closed && (payload = queue.poll()) != null) {
+                    if (payload == Payload.HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    else {
+                        emitter.send(SseEmitter.event().name(payload.name).id(Long.toString(payload.seq))
+                                .data(payload.data, MediaType.APPLICATION_JSON));
+                    }
+                    sentAt = System.currentTimeMillis();
+                }
+                if (closed) {
+                    emitter.complete();
+                }
+            }
+            catch (Exception e) {  //the client went away
+                closed = true;
+                remove(this);
+                emitter.completeWithError(e);
+            }
+            finally {
+                sending.set(false);
+            }
+            //queued after the last poll but before sending was cleared
+            if (!queue.isEmpty() && !closed) {
+                drain();
+            }
+        }
+
+    }
+
+}
@@ -2,20 +2,36 @@ package com.example.demo.Controller;
 
 import com.alibaba.fastjson.JSONObject;
 import com.example.demo.Model.Container;
+import com.example.demo.Model.Event;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.util.List;
+
 @Controller
 @RequestMapping(value = "/api")
 public class ViewController {
 
     @ResponseBody
-    @RequestMapping(value = "/view")
-    public JSONObject view() {
+    @RequestMapping(value = {"/view", "/{name:" + ContainerResolver.NAME + "}/view"})
+    public JSONObject view(@PathVariable(value = "name", required = false) String name,
+                           @RequestParam(value = "since", required = false) Long since) {
         JSONObject resp = new JSONObject();
+        Container container = ContainerResolver.find(name);
 
-        resp.put("container", Container.getListOfValue());
+        List<Event> changes = (since == null) ? null : container.getChangesSince(since);
+        if (changes == null) {  //whole container, as of seq
+            Container.Snapshot snapshot = container.getSnapshot();
+            resp.put("seq", snapshot.getSeq());
+            resp.put("container", snapshot.getValues());
+        }
+        else {
+            resp.put("seq", changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq());
+            resp.put("changes", changes);
+        }
 
         return resp;
     }
@@ -3,59 +3,507 @@ package com.example.demo.Model;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+//shared by all request threads and the timeout check: every change of the store takes the container's lock
+//together with its seq, so that the changes are numbered in the order they happened and a consume is never
+//numbered before the produce of its item; reads of seq and of the kept changes take no lock
+//the lock is one per container on purpose, rather than stripes within it: seqs have to follow one order, which
+//stripes could only give with a lock of their own; requests contend with those for the same container only,
+//since containers share nothing but the timer and waker threads
 public class Container {
 
-    static private List<Item> container = new ArrayList<Item>();
+    //the kept changes start this many, and double whenever they are all taken, up to changesKept
+    static final private int initialChangesKept = 16;
 
-    //current number of value (auto increment)
-    static private int cntValue = 0;
+    final private Object lock = new Object();
 
-    static final private int threshold = 5;
+    //the name it is registered under, null if it is not
+    private String name;
 
-    static final private int timeout = 30 * 1000;  //30 seconds
+    private ItemStore container;
 
-    static public List<Integer> getListOfValue() {
+    //number of items, guarded by the lock
+    private int size = 0;
+
+    //current number of value (auto increment), changed under the lock
+    private volatile int cntValue = 0;
+
+    private int threshold;
+
+    private int timeout;
+
+    //at most one expiry task is pending, due when the oldest item expires; none while the container is empty
+    //it also times the wake-ups of delayed items, which run on wakers
+    private ScheduledExecutorService expiry;
+
+    //where the waiters of delayed items are woken once they are visible
+    private Executor wakers;
+
+    //when the pending expiry run is due, Long.MAX_VALUE if there is none
+    final private AtomicLong expiryAt = new AtomicLong(Long.MAX_VALUE);
+
+    //sequence number of the latest change, changed under the lock
+    private volatile long seq = 0;
+
+    //the latest changes, the one numbered seq in slot seq % changes.length(); replaced by a larger one under the
+    //lock, before the seq that needs it is set
+    private int changesKept;
+
+    private volatile AtomicReferenceArray<Event> changes;
+
+    //when the latest change happened, or when it was created
+    private volatile long changedAt = new Date().getTime();
+
+    //parked consumers, woken in the order they came, one for each item produced
+    private Queue<Waiter> waiters = new ConcurrentLinkedQueue<Waiter>();
+
+    //changes up to this one were restored from the log, not kept
+    private volatile long restoredSeq = 0;
+
+    //where the changes are persisted, if anywhere
+    private volatile ContainerLog log = null;
+
+    //stream subscribers, guarded by the lock
+    private int watchers = 0;
+
+    //set under the lock once it is evicted; whatever comes late goes to the container that took its name
+    private boolean retired = false;
+
+    //expiry is shared with other containers, and wakes the waiters of delayed items as well
+    public Container(ItemStore store, int threshold, int timeout, int changesKept, ScheduledExecutorService expiry) {
+        this(null, store, threshold, timeout, changesKept, expiry, expiry);
+    }
+
+    Container(String name, ItemStore store, int threshold, int timeout, int changesKept,
+              ScheduledExecutorService expiry, Executor wakers) {
+        this.name = name;
+        this.container = store;
+        this.threshold = threshold;
+        this.timeout = timeout;
+        this.changesKept = changesKept;
+        this.changes = new AtomicReferenceArray<Event>(Math.min(initialChangesKept, changesKept));
+        this.expiry = expiry;
+        this.wakers = wakers;
+    }
+
+    public List<Integer> getListOfValue() {
         List<Integer> listOfValue = new ArrayList<Integer>();
-        container.forEach(item -> {
-            listOfValue.add(item.getValue());
-        });
+        container.forEachValue(listOfValue::add);
         return listOfValue;
     }
 
-    static public List<Integer> produce() {
-        cntValue++;
-        container.add(new Item(cntValue, new Date()));
-        return getListOfValue();
+    public long getSeq() {
+        return seq;
     }
 
-    static public List<Integer> consume() {
-        if (container.isEmpty()) {
-            return getListOfValue();
-        }
-        if (container.size() >= threshold) {  //should be a stack now
-            container.remove(container.size() - 1);
+    public int getCntValue() {
+        return cntValue;
+    }
+
+    public List<Item> getItems() {
+        return container.getItems();
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    //a batch must fit in the kept changes, otherwise it could never be viewed incrementally
+    public int getMaxBatch() {
+        return changesKept;
+    }
+
+    public void setLog(ContainerLog log) {
+        this.log = log;
+    }
+
+    //the values in the container as of the seq returned with them
+    public Snapshot getSnapshot() {
+        synchronized (lock) {
+            return new Snapshot(seq, getListOfValue());
         }
-        else {  //should be a queue now
-            container.remove(0);
+    }
+
+    //the state replayed from the log at startup, items in the order they were produced
+    public void restore(long seq, int cntValue, List<Item> items) {
+        synchronized (lock) {
+            this.seq = Math.max(this.seq, seq);
+            this.cntValue = Math.max(this.cntValue, cntValue);
+            restoredSeq = seq;
+            items.forEach(item -> container.add(item.getValue(), item.getDate(), item.getPriority()));
+            size += items.size();
         }
-        return getListOfValue();
+        scheduleExpiry();
     }
 
-    static public void check() {
-        while (true) {
-            if (container.isEmpty()) {
+    //the changes after since, oldest first; null if some of them are no longer kept
+    public List<Event> getChangesSince(long since) {
+        long latest = seq;
+        AtomicReferenceArray<Event> changes = this.changes;  //after seq, so that it holds the changes up to latest
+        if (since < restoredSeq || since > latest || latest - since > changes.length()) {
+            return null;
+        }
+        List<Event> changesSince = new ArrayList<Event>((int) (latest - since));
+        for (long s = since + 1; s <= latest; s++) {
+            Event event = changes.get((int) (s % changes.length()));
+            if (event == null || event.getSeq() < s) {  //still being published, stop before it
                 break;
             }
-            if ((new Date().getTime()) - container.get(0).getDate() < timeout) {
+            if (event.getSeq() > s) {  //overwritten by a newer change meanwhile
+                return null;
+            }
+            changesSince.add(event);
+        }
+        return changesSince;
+    }
+
+    //with the lock held, right after the change of the store; date and priority are only logged for produce,
+    //the others pass 0
+    private Event publish(String type, int value, long date, int priority) {
+        long s = seq + 1;
+        Event event = new Event(s, type, value);
+        AtomicReferenceArray<Event> changes = this.changes;
+        if (s - 1 - restoredSeq >= changes.length() && changes.length() < changesKept) {
+            changes = growChanges(changes, s - 1);
+        }
+        changes.set((int) (s % changes.length()), event);
+        seq = s;  //after the change is kept, so that getChangesSince finds it
+        changedAt = new Date().getTime();
+        ContainerLog log = this.log;
+        if (log != null) {
+            log.append(event, date, priority);
+        }
+        return event;
+    }
+
+    //with the lock held: the kept changes up to latest, in twice as many slots
+    private AtomicReferenceArray<Event> growChanges(AtomicReferenceArray<Event> changes, long latest) {
+        AtomicReferenceArray<Event> grown = new AtomicReferenceArray<Event>(Math.min(changes.length() * 2, changesKept));
+        for (long s = Math.max(latest - changes.length() + 1, restoredSeq + 1); s <= latest; s++) {
+            grown.set((int) (s % grown.length()), changes.get((int) (s % changes.length())));
+        }
+        this.changes = grown;
+        return grown;
+    }
+
+    //slots of the kept changes allocated so far
+    int getChangesCapacity() {
+        return changes.length();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isPrioritized() {
+        return container.isPrioritized();
+    }
+
+    public Event produce() {
+        return produce(0, 0);
+    }
+
+    //priority and delayMs (how long it stays invisible) are for a prioritized container only
+    public Event produce(int priority, long delayMs) {
+        Event event = null;
+        synchronized (lock) {
+            if (!retired) {
+                int value = ++cntValue;
+                long date = new Date().getTime() + delayMs;
+                container.add(value, date, priority);
+                size++;
+                event = publish(Event.PRODUCE, value, date, priority);
+            }
+        }
+        if (event == null) {
+            return successor().produce(priority, delayMs);
+        }
+        scheduleExpiry();
+        wakeWaiters(1, delayMs);
+        return event;
+    }
+
+    //null if there was nothing to consume
+    public Event consume() {
+        synchronized (lock) {
+            if (!retired) {
+                //should be a stack from the threshold on, a queue below it
+                Item item = container.take(size >= threshold);
+                if (item == null) {
+                    return null;
+                }
+                size--;
+                return publish(Event.CONSUME, item.getValue(), 0, 0);
+            }
+        }
+        return successor().consume();
+    }
+
+    //count items with consecutive values and seqs, in one critical section; 1 <= count <= getMaxBatch()
+    public List<Event> produce(int count) {
+        return produce(count, 0, 0);
+    }
+
+    public List<Event> produce(int count, int priority, long delayMs) {
+        List<Event> events = null;
+        synchronized (lock) {
+            if (!retired) {
+                events = new ArrayList<Event>(count);
+                int first = cntValue + 1;
+                cntValue += count;
+                long date = new Date().getTime() + delayMs;
+                for (int i = 0; i < count; i++) {
+                    container.add(first + i, date, priority);
+                    events.add(publish(Event.PRODUCE, first + i, date, priority));
+                }
+                size += count;
+            }
+        }
+        if (events == null) {
+            return successor().produce(count, priority, delayMs);
+        }
+        scheduleExpiry();
+        wakeWaiters(count, delayMs);
+        return events;
+    }
+
+    //up to count items, each one taken by the threshold rule as consume() would, with consecutive seqs in one
+    //critical section; empty if there was nothing to consume
+    public List<Event> consume(int count) {
+        List<Event> events = new ArrayList<Event>(count);
+        synchronized (lock) {
+            if (!retired) {
+                while (events.size() < count) {
+                    Item item = container.take(size >= threshold);
+                    if (item == null) {
+                        break;
+                    }
+                    size--;
+                    events.add(publish(Event.CONSUME, item.getValue(), 0, 0));
+                }
+                return events;
+            }
+        }
+        return successor().consume(count);
+    }
+
+    //consumed items that could not be handed out after all, back in the container with their values, produced
+    //again now (without the priority they had)
+    public void putBack(List<Event> consumed) {
+        boolean retired;
+        synchronized (lock) {
+            retired = this.retired;
+            if (!retired) {
+                long date = new Date().getTime();
+                for (Event event : consumed) {
+                    container.add(event.getValue(), date, 0);
+                    size++;
+                    publish(Event.PRODUCE, event.getValue(), date, 0);
+                }
+            }
+        }
+        if (retired) {
+            successor().putBack(consumed);
+            return;
+        }
+        scheduleExpiry();
+        wakeWaiters(consumed.size(), 0);
+    }
+
+    //an item produced before the waiter was added woke nobody, so a waiter is woken here if there is one
+    //already: the first in line, which may be an earlier one; each waiter is in line once, and only woken once
+    //it is taken out of it
+    public void addWaiter(Waiter waiter) {
+        boolean retired;
+        synchronized (lock) {
+            retired = this.retired;
+            if (!retired) {
+                waiters.add(waiter);
+            }
+        }
+        if (retired) {
+            successor().addWaiter(waiter);
+        }
+        else if (container.hasVisible()) {
+            wakeWaiters(1, 0);
+        }
+    }
+
+    //a woken waiter that found nothing left, back in line without waking anybody; see Waiter
+    public void requeue(Waiter waiter) {
+        synchronized (lock) {
+            if (!retired) {
+                waiters.add(waiter);
+                return;
+            }
+        }
+        successor().requeue(waiter);
+    }
+
+    //false if it was not in line, taken out to be woken or never added
+    public boolean removeWaiter(Waiter waiter) {
+        return waiters.remove(waiter);
+    }
+
+    //when the items become visible
+    private void wakeWaiters(int count, long delayMs) {
+        if (delayMs > 0) {
+            expiry.schedule(() -> wakers.execute(() -> wakeWaiters(count, 0)), delayMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+        int woken = 0;
+        while (woken < count) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null) {
                 break;
             }
-            container.remove(0);
+            if (waiter.wake()) {
+                woken++;
+            }
+        }
+    }
+
+    //the store keeps the oldest item at hand, so expired items are taken one by one, O(1) or O(log n) each
+    public void check() {
+        long deadline = new Date().getTime() - timeout;
+        while (true) {
+            synchronized (lock) {  //item by item, so that requests are not held up by a long sweep
+                Item item = container.pollExpired(deadline);
+                if (item == null) {
+                    return;
+                }
+                size--;
+                publish(Event.EXPIRE, item.getValue(), 0, 0);
+            }
+        }
+    }
+
+    //again, earlier, if the oldest item is due before the pending run: an item delayed for a day may have been
+    //the oldest one when the run was scheduled
+    private void scheduleExpiry() {
+        long date = container.peekOldestDate();
+        if (date < 0) {
+            return;
+        }
+        long at = date + timeout;
+        while (true) {
+            long scheduled = expiryAt.get();
+            if (scheduled <= at) {  //that run schedules the next one
+                return;
+            }
+            if (expiryAt.compareAndSet(scheduled, at)) {
+                expiry.schedule(() -> expire(at), Math.max(at - new Date().getTime(), 0), TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+    }
+
+    //only the pending run sweeps, one superseded by an earlier run does nothing; cleared before the sweep, so that
+    //an item produced meanwhile schedules the next run itself
+    private void expire(long at) {
+        if (expiryAt.compareAndSet(at, Long.MAX_VALUE)) {
+            check();
+            scheduleExpiry();
         }
     }
 
-    static public boolean isEmpty() {
+    //whether an expiry run is pending
+    boolean isExpiryScheduled() {
+        return expiryAt.get() != Long.MAX_VALUE;
+    }
+
+    public boolean isEmpty() {
         return container.isEmpty();
     }
 
+    public boolean hasVisible() {
+        return container.hasVisible();
+    }
+
+    //waiters in line
+    int countWaiters() {
+        return waiters.size();
+    }
+
+    //a stream subscriber keeps it from being evicted until unwatch(); returns the container it watches, which
+    //is another one if this one was evicted meanwhile
+    public Container watch() {
+        synchronized (lock) {
+            if (!retired) {
+                watchers++;
+                return this;
+            }
+        }
+        return successor().watch();
+    }
+
+    public void unwatch() {
+        synchronized (lock) {
+            watchers--;
+        }
+    }
+
+    //evicted if it is empty, nobody waits on or watches it, and nothing changed since idleSince; whatever comes
+    //later goes to successor()
+    boolean retire(long idleSince) {
+        synchronized (lock) {
+            if (!retired && container.isEmpty() && waiters.isEmpty() && watchers == 0 && changedAt < idleSince) {
+                retired = true;
+            }
+            return retired;
+        }
+    }
+
+    //this one, or the one that took its name if it was evicted; for whoever keeps a container across requests
+    public Container current() {
+        synchronized (lock) {
+            if (!retired) {
+                return this;
+            }
+        }
+        return successor();
+    }
+
+    //the container registered under the same name after this one was evicted, with the same settings; never
+    //called with the lock held, since the successor may wake waiters
+    private Container successor() {
+        Container successor = Containers.create(name, threshold, timeout, isPrioritized());
+        if (successor == null) {
+            throw new IllegalStateException("too many containers to create " + name + " again");
+        }
+        return successor;
+    }
+
+    public static class Snapshot {
+
+        private long seq;
+
+        private List<Integer> values;
+
+        Snapshot(long seq, List<Integer> values) {
+            this.seq = seq;
+            this.values = values;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public List<Integer> getValues() {
+            return values;
+        }
+
+    }
+
 }
@@ -0,0 +1,347 @@
+package com.example.demo.Model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+//append-only log of the changes of a container, so that it survives restarts; ContainerLogs keeps one for each
+//container and syncs and compacts them
+//changes go to memory-mapped segment files <index>.seg, and a snapshot <index>.snap holds the
+//container as it was when segment <index> was started, so older segments can be deleted
+//
+//records are seq (8 bytes), date (8, only for produce), type (4), value (4), priority (4, only for produce) and
+//the CRC32 of those 28 bytes (4); unwritten ones are all zero. Records are 32 bytes from the start of a
+//page-aligned mapping, so none crosses a page, and one torn by a crash anyway fails its checksum and is skipped
+//on replay
+public class ContainerLog implements Closeable {
+
+    static final private Logger logger = LoggerFactory.getLogger(ContainerLog.class);
+
+    static final int recordBytes = 32;
+
+    //bytes covered by the checksum
+    static final private int payloadBytes = 28;
+
+    //type of the first record of a snapshot, which holds seq and cntValue
+    static final private int STATE = 0;
+
+    static final private int PRODUCE = 1;
+
+    static final private int CONSUME = 2;
+
+    static final private int EXPIRE = 3;
+
+    private Container container;
+
+    private Path dir;
+
+    private int segmentBytes;
+
+    private volatile Segment current;
+
+    private Object rollLock = new Object();
+
+    //records appended since the last compaction
+    private AtomicLong appended = new AtomicLong(0);
+
+    //records appended since the last sync
+    private volatile boolean dirty = false;
+
+    //guarded by this
+    private boolean closed = false;
+
+    public ContainerLog(Container container, Path dir, int segmentBytes) {
+        this.container = container;
+        this.dir = dir;
+        this.segmentBytes = segmentBytes - segmentBytes % recordBytes;
+    }
+
+    //restores the container from the log, then logs its changes from now on in a new segment
+    public void open() throws IOException {
+        Files.createDirectories(dir);
+        Replayed replayed = replay();
+        current = new Segment(Math.max(latest(".snap"), latest(".seg")) + 1);
+        container.setLog(this);
+        container.restore(replayed.seq, replayed.cntValue, replayed.inOrder());
+    }
+
+    Replayed replay() throws IOException {
+        long snapshot = latest(".snap");
+        Replayed replayed = new Replayed();
+        //the latest record of each value by seq decides whether it is in the container: a value is removed
+        //after it is produced, and only produced again when it is put back, so the order of the files does
+        //not matter
+        Map<Integer, Long> latest = new HashMap<Integer, Long>();
+
+        List<Path> files = new ArrayList<Path>();
+        if (snapshot >= 0) {
+            files.add(file(snapshot, ".snap"));
+        }
+        for (long index : indexes(".seg")) {
+            if (index >= snapshot) {
+                files.add(file(index, ".seg"));
+            }
+        }
+        long position = 0;
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int at = 0; at <= records.limit() - recordBytes; at += recordBytes, position++) {
+                    long seq = records.getLong(at);
+                    long date = records.getLong(at + 8);
+                    int type = records.getInt(at + 16);
+                    int value = records.getInt(at + 20);
+                    int priority = records.getInt(at + 24);
+                    int checksum = records.getInt(at + 28);
+                    if (seq == 0 && checksum == 0) {  //never written
+                        continue;
+                    }
+                    if (checksum != checksum(records, at)) {
+                        logger.warn("Skipping torn record at {} of {}", at, file);
+                        continue;
+                    }
+                    replayed.seq = Math.max(replayed.seq, seq);
+                    replayed.cntValue = Math.max(replayed.cntValue, value);
+                    if (type == STATE) {
+                        continue;
+                    }
+                    Long previous = latest.get(value);
+                    if (previous != null && previous > seq) {
+                        continue;
+                    }
+                    latest.put(value, seq);
+                    if (type == PRODUCE) {
+                        replayed.items.put(value, new Produced(value, date, priority, seq, position));
+                    }
+                    else {
+                        replayed.items.remove(value);
+                    }
+                }
+            }
+        }
+        return replayed;
+    }
+
+    public void append(Event event, long date, int priority) {
+        int type = Event.PRODUCE.equals(event.getType()) ? PRODUCE
+                : Event.CONSUME.equals(event.getType()) ? CONSUME : EXPIRE;
+        while (true) {
+            Segment segment = current;
+            if (segment.append(event.getSeq(), date, type, event.getValue(), priority)) {
+                appended.incrementAndGet();
+                dirty = true;
+                return;
+            }
+            roll(segment);
+        }
+    }
+
+    //only if anything was appended since the last time, so that a log left alone costs nothing
+    public void sync() {
+        if (dirty) {
+            dirty = false;
+            current.records.force();
+        }
+    }
+
+    //starts a new segment, snapshots the container and deletes everything before the new segment
+    //changes made while the snapshot is taken are both in it and in the new segment, which is fine
+    //since replaying goes by the seq of each value
+    public synchronized void compact() throws IOException {
+        if (closed || appended.getAndSet(0) == 0) {
+            return;
+        }
+        long index = roll(current);
+        long seq = container.getSeq();
+        int cntValue = container.getCntValue();
+        List<Item> items = container.getItems();
+
+        ByteBuffer records = ByteBuffer.allocate((items.size() + 1) * recordBytes);
+        put(records, 0, seq, System.currentTimeMillis(), STATE, cntValue, 0);
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            put(records, (i + 1) * recordBytes, seq, item.getDate(), PRODUCE, item.getValue(), item.getPriority());
+        }
+        Path temp = dir.resolve(index + ".snap.tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file(index, ".snap"), StandardCopyOption.ATOMIC_MOVE);
+
+        for (long old : indexes(".seg")) {
+            if (old < index) {
+                Files.deleteIfExists(file(old, ".seg"));
+            }
+        }
+        for (long old : indexes(".snap")) {
+            if (old < index) {
+                Files.deleteIfExists(file(old, ".snap"));
+            }
+        }
+    }
+
+    //index of the segment after full, if it still is the current one, or of the current one
+    private long roll(Segment full) {
+        synchronized (rollLock) {
+            if (current == full) {
+                try {
+                    current = new Segment(full.index + 1);
+                }
+                catch (IOException e) {
+                    throw new IllegalStateException("Cannot start segment " + (full.index + 1), e);
+                }
+                full.records.force();
+            }
+            return current.index;
+        }
+    }
+
+    //after a compaction under way, if there is one
+    @Override
+    public synchronized void close() {
+        closed = true;
+        container.setLog(null);
+        current.records.force();
+    }
+
+    static private void put(ByteBuffer records, int at, long seq, long date, int type, int value, int priority) {
+        records.putLong(at, seq);
+        records.putLong(at + 8, date);
+        records.putInt(at + 16, type);
+        records.putInt(at + 20, value);
+        records.putInt(at + 24, priority);
+        records.putInt(at + 28, checksum(records, at));
+    }
+
+    //of the payload of the record at at
+    static private int checksum(ByteBuffer records, int at) {
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = records.duplicate();
+        payload.limit(at + payloadBytes).position(at);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private Path file(long index, String suffix) {
+        return dir.resolve(String.format("%016d%s", index, suffix));
+    }
+
+    private long latest(String suffix) throws IOException {
+        long latest = -1;
+        for (long index : indexes(suffix)) {
+            latest = Math.max(latest, index);
+        }
+        return latest;
+    }
+
+    private List<Long> indexes(String suffix) throws IOException {
+        List<Long> indexes = new ArrayList<Long>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(suffix) && name.length() == 16 + suffix.length())
+                    .forEach(name -> indexes.add(Long.parseLong(name.substring(0, 16))));
+        }
+        indexes.sort(null);
+        return indexes;
+    }
+
+    static class Replayed {
+
+        long seq = 0;
+
+        int cntValue = 0;
+
+        //value to its latest produce, for the items still in the container
+        Map<Integer, Produced> items = new HashMap<Integer, Produced>();
+
+        //in the order they were produced: by date, then by seq, then by where they are in the log, since the items
+        //of a snapshot share its seq and are written in the order of the store; not by value, since an item put
+        //back keeps its value but is produced again
+        List<Item> inOrder() {
+            List<Produced> produced = new ArrayList<Produced>(items.values());
+            produced.sort(Comparator.comparingLong((Produced item) -> item.date)
+                    .thenComparingLong(item -> item.seq).thenComparingLong(item -> item.position));
+            List<Item> inOrder = new ArrayList<Item>(produced.size());
+            for (Produced item : produced) {
+                inOrder.add(new Item(item.value, item.date, item.priority));
+            }
+            return inOrder;
+        }
+
+    }
+
+    static class Produced {
+
+        final int value;
+
+        final long date;
+
+        final int priority;
+
+        final long seq;
+
+        //of the record among all those replayed
+        final long position;
+
+        Produced(int value, long date, int priority, long seq, long position) {
+            this.value = value;
+            this.date = date;
+            this.priority = priority;
+            this.seq = seq;
+            this.position = position;
+        }
+
+    }
+
+    private class Segment {
+
+        private long index;
+
+        private MappedByteBuffer records;
+
+        private AtomicInteger position = new AtomicInteger(0);
+
+        Segment(long index) throws IOException {
+            this.index = index;
+            //the mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(file(index, ".seg"), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                records = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            }
+        }
+
+        //false if the segment is full
+        boolean append(long seq, long date, int type, int value, int priority) {
+            int at = position.getAndAdd(recordBytes);
+            if (at > segmentBytes - recordBytes) {
+                return false;
+            }
+            put(records, at, seq, date, type, value, priority);
+            return true;
+        }
+
+    }
+
+}
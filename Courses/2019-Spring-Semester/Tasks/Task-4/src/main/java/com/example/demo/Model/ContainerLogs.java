@@ -0,0 +1,154 @@
+package com.example.demo.Model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//a log for every container, in a directory named after it under dir, next to the settings it was created with;
+//opening restores each container found there, and containers created later get their log as they are created
+//the logs are synced and compacted by one background thread, which skips those with nothing new
+public class ContainerLogs implements Closeable {
+
+    static final private Logger logger = LoggerFactory.getLogger(ContainerLogs.class);
+
+    //forced to disk every sync interval, by the background thread
+    static final public String SYNC_INTERVAL = "interval";
+
+    //left to the operating system
+    static final public String SYNC_NONE = "none";
+
+    //threshold, timeout and prioritized, to create the container again before replaying its log
+    static final private String settings = "container.properties";
+
+    private Path dir;
+
+    private int segmentBytes;
+
+    private ConcurrentMap<Container, ContainerLog> logs = new ConcurrentHashMap<Container, ContainerLog>();
+
+    private ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "container-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ContainerLogs(Path dir, int segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+    }
+
+    //restores the containers that have a log, then logs every container from now on, the default one among them
+    public void open() throws IOException {
+        Files.createDirectories(dir);
+        Containers.setLogs(this);
+        List<Path> logged = new ArrayList<Path>();
+        try (Stream<Path> dirs = Files.list(dir)) {
+            dirs.filter(container -> Files.isRegularFile(container.resolve(settings))).forEach(logged::add);
+        }
+        for (Path container : logged) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(container.resolve(settings))) {
+                properties.load(in);
+            }
+            String name = container.getFileName().toString();
+            if (Containers.create(name, Integer.parseInt(properties.getProperty("threshold")),
+                    Integer.parseInt(properties.getProperty("timeout")),
+                    Boolean.parseBoolean(properties.getProperty("prioritized"))) == null) {
+                throw new IllegalStateException("Too many containers to restore " + name);
+            }
+        }
+        Containers.getDefault();
+        Containers.all().forEach(this::attach);  //created before the logs were set
+    }
+
+    //sync is SYNC_INTERVAL or SYNC_NONE
+    public void start(String sync, long syncIntervalMs, long compactIntervalMs) {
+        if (SYNC_INTERVAL.equals(sync)) {
+            background.scheduleWithFixedDelay(() -> logs.values().forEach(ContainerLog::sync),
+                    syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        else if (!SYNC_NONE.equals(sync)) {
+            throw new IllegalArgumentException("Unknown sync policy: " + sync);
+        }
+        background.scheduleWithFixedDelay(this::compact, compactIntervalMs, compactIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    //restores the container from its log, if it has one, and logs its changes from now on; by Containers as it
+    //creates the container, before anybody else gets it
+    void attach(Container container) {
+        logs.computeIfAbsent(container, key -> {
+            Path logDir = dir.resolve(container.getName());
+            try {
+                Files.createDirectories(logDir);
+                Properties properties = new Properties();
+                properties.setProperty("threshold", Integer.toString(container.getThreshold()));
+                properties.setProperty("timeout", Integer.toString(container.getTimeout()));
+                properties.setProperty("prioritized", Boolean.toString(container.isPrioritized()));
+                try (OutputStream out = Files.newOutputStream(logDir.resolve(settings))) {
+                    properties.store(out, container.getName());
+                }
+                ContainerLog log = new ContainerLog(container, logDir, segmentBytes);
+                log.open();
+                return log;
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Cannot open the log of container " + container.getName(), e);
+            }
+        });
+    }
+
+    //closes the log of an evicted container, which is empty, and deletes it; by Containers as it evicts the
+    //container, before a successor by the same name gets a log
+    void detach(Container container) {
+        ContainerLog log = logs.remove(container);
+        if (log == null) {
+            return;
+        }
+        log.close();
+        Path logDir = dir.resolve(container.getName());
+        try (Stream<Path> files = Files.walk(logDir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+        catch (IOException e) {  //replays as empty anyway
+            logger.warn("Cannot delete the log of evicted container {}", container.getName(), e);
+        }
+    }
+
+    private void compact() {
+        for (ContainerLog log : logs.values()) {
+            try {
+                log.compact();
+            }
+            catch (IOException | RuntimeException e) {  //the old segments are kept, try again next time
+                logger.warn("Cannot compact a container log under {}", dir, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Containers.setLogs(null);
+        background.shutdownNow();
+        logs.values().forEach(ContainerLog::close);
+        logs.clear();
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.example.demo.Model;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//the named containers, created on first use; /api/produce and the like use the one named "default"
+//a container that has been empty and unused for idleEvictMs is evicted, except the default one, and created again
+//(with the same settings, if anybody still holds it) on next use
+//with logs set, each container is restored from its log as it is created, and an evicted one has its log deleted
+public class Containers {
+
+    static final public String DEFAULT = "default";
+
+    static private ConcurrentMap<String, Container> containers = new ConcurrentHashMap<String, Container>();
+
+    //counted as they are created and evicted, so that concurrent creates can not go past maxContainers
+    static final private AtomicInteger count = new AtomicInteger(0);
+
+    static final private int threads = Runtime.getRuntime().availableProcessors();
+
+    //the timers of every container: its expiry sweep, when its delayed items become visible, and the idle
+    //eviction; a thread per core, so that one long sweep does not hold up the others
+    static final private ScheduledExecutorService expiry = Executors.newScheduledThreadPool(threads,
+            daemon("container-expiry"));
+
+    //wakes the waiters of delayed items once they are visible, which answers their requests; apart from the
+    //timers, so that long-polls and sweeps do not wait for each other
+    static final private ExecutorService wakers = Executors.newFixedThreadPool(threads, daemon("container-wake"));
+
+    //set once at startup, before any container is created
+    static private Supplier<ItemStore> storeFactory = LinkedItemStore::new;
+
+    static private int defaultThreshold = 5;
+
+    static private int defaultTimeout = 30 * 1000;  //30 seconds
+
+    static private int changesKept = 4096;
+
+    static private int maxContainers = 100000;
+
+    //0 to keep them all
+    static private long idleEvictMs = 0;
+
+    static private ScheduledFuture<?> eviction = null;
+
+    //null unless the containers are persisted
+    static private volatile ContainerLogs logs = null;
+
+    static public synchronized void configure(Supplier<ItemStore> storeFactory, int defaultThreshold,
+                                              int defaultTimeout, int changesKept, int maxContainers,
+                                              long idleEvictMs) {
+        Containers.storeFactory = storeFactory;
+        Containers.defaultThreshold = defaultThreshold;
+        Containers.defaultTimeout = defaultTimeout;
+        Containers.changesKept = changesKept;
+        Containers.maxContainers = maxContainers;
+        Containers.idleEvictMs = idleEvictMs;
+        if (eviction != null) {
+            eviction.cancel(false);
+            eviction = null;
+        }
+        if (idleEvictMs > 0) {  //so a container is evicted within 1.5 times idleEvictMs
+            long interval = Math.max(idleEvictMs / 2, 1000);
+            eviction = expiry.scheduleWithFixedDelay(() -> evictIdle(System.currentTimeMillis() - idleEvictMs),
+                    interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    static public void setLogs(ContainerLogs logs) {
+        Containers.logs = logs;
+    }
+
+    static public Container getDefault() {
+        return get(DEFAULT);
+    }
+
+    //null if there is none by that name (the default one always exists)
+    static public Container find(String name) {
+        return DEFAULT.equals(name) ? getDefault() : containers.get(name);
+    }
+
+    //null if there are too many containers to create it
+    static public Container get(String name) {
+        Container container = containers.get(name);
+        return (container != null) ? container : create(name, defaultThreshold, defaultTimeout);
+    }
+
+    //the existing one if there is one already, whatever its threshold and timeout; null if there are too many
+    static public Container create(String name, int threshold, int timeout) {
+        return create(name, threshold, timeout, false);
+    }
+
+    //a prioritized container takes items by priority and can delay them, instead of the threshold rule
+    static public Container create(String name, int threshold, int timeout, boolean prioritized) {
+        return containers.computeIfAbsent(name, key -> {
+            if (count.incrementAndGet() > maxContainers) {
+                count.decrementAndGet();
+                return null;
+            }
+            Container container = new Container(name, prioritized ? new PriorityItemStore() : storeFactory.get(),
+                    threshold, timeout, changesKept, expiry, wakers);
+            ContainerLogs logs = Containers.logs;
+            if (logs != null) {  //restored before anybody gets it
+                try {
+                    logs.attach(container);
+                }
+                catch (RuntimeException e) {
+                    count.decrementAndGet();
+                    throw e;
+                }
+            }
+            return container;
+        });
+    }
+
+    //the containers empty and unused since idleSince, each one retired as it is removed so that it is never
+    //handed out after that; returns how many there were
+    static int evictIdle(long idleSince) {
+        int evicted = 0;
+        for (Container container : containers.values()) {
+            if (DEFAULT.equals(container.getName()) || !container.isEmpty()) {
+                continue;
+            }
+            if (containers.computeIfPresent(container.getName(), (name, current) -> {
+                if (current != container || !container.retire(idleSince)) {
+                    return current;
+                }
+                ContainerLogs logs = Containers.logs;
+                if (logs != null) {  //empty, so nothing is lost; before a successor by that name can get a log
+                    logs.detach(container);
+                }
+                return null;
+            }) == null) {
+                count.decrementAndGet();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    //registered now
+    static Collection<Container> all() {
+        return containers.values();
+    }
+
+    //containers registered now
+    static int count() {
+        return count.get();
+    }
+
+    static private ThreadFactory daemon(String name) {
+        AtomicInteger created = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
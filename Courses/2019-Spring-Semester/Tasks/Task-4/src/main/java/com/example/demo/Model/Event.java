@@ -0,0 +1,34 @@
+package com.example.demo.Model;
+
+//one change of the container, numbered in the order the changes were published
+public class Event {
+
+    static final public String PRODUCE = "produce";
+    static final public String CONSUME = "consume";
+    static final public String EXPIRE = "expire";
+
+    private long seq;
+
+    private String type;
+
+    private int value;
+
+    public Event(long seq, String type, int value) {
+        this.seq = seq;
+        this.type = type;
+        this.value = value;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+}
@@ -6,11 +6,23 @@ public class Item {
 
     private int value;
 
-    private Date insertAt;
+    //when the item became or becomes visible to consumers, usually when it was produced
+    private long insertAt;
+
+    private int priority;
 
     public Item(int value, Date insertAt) {
+        this(value, insertAt.getTime());
+    }
+
+    public Item(int value, long insertAt) {
+        this(value, insertAt, 0);
+    }
+
+    public Item(int value, long insertAt, int priority) {
         this.value = value;
         this.insertAt = insertAt;
+        this.priority = priority;
     }
 
     public int getValue() {
@@ -18,7 +30,11 @@ public class Item {
     }
 
     public long getDate() {
-        return insertAt.getTime();
+        return insertAt;
+    }
+
+    public int getPriority() {
+        return priority;
     }
 
 }
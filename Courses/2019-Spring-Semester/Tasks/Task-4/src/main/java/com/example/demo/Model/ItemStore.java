@@ -0,0 +1,33 @@
+package com.example.demo.Model;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+//the items of a container; changes (add, take, pollExpired) are made under the container's lock, the other
+//methods may be called by any thread at any time
+public interface ItemStore {
+
+    //date is when the item becomes visible; only a prioritized store keeps the priority or takes a date in the future
+    void add(int value, long date, int priority);
+
+    //the next item to consume, null if there is none visible: for a plain store the newest one if stack is set,
+    //the oldest one otherwise; for a prioritized store the visible one of highest priority, whatever stack is
+    Item take(boolean stack);
+
+    //the oldest item if its date is at or before deadline, null otherwise
+    Item pollExpired(long deadline);
+
+    //date of the oldest item, -1 if the store is empty
+    long peekOldestDate();
+
+    boolean hasVisible();
+
+    boolean isEmpty();
+
+    boolean isPrioritized();
+
+    void forEachValue(IntConsumer action);
+
+    List<Item> getItems();
+
+}
@@ -0,0 +1,65 @@
+package com.example.demo.Model;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.IntConsumer;
+
+//one Item and one deque node per item; changes come under the container's lock, reads (view, stream and
+//expiry scheduling) take none
+public class LinkedItemStore implements ItemStore {
+
+    private Deque<Item> items = new ConcurrentLinkedDeque<Item>();
+
+    @Override
+    public void add(int value, long date, int priority) {
+        items.addLast(new Item(value, date));
+    }
+
+    @Override
+    public Item take(boolean stack) {
+        return stack ? items.pollLast() : items.pollFirst();
+    }
+
+    @Override
+    public Item pollExpired(long deadline) {
+        Item head = items.peekFirst();
+        if (head == null || head.getDate() > deadline) {
+            return null;
+        }
+        return items.pollFirst();
+    }
+
+    @Override
+    public long peekOldestDate() {
+        Item head = items.peekFirst();
+        return (head == null) ? -1 : head.getDate();
+    }
+
+    @Override
+    public boolean hasVisible() {
+        return !items.isEmpty();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    @Override
+    public boolean isPrioritized() {
+        return false;
+    }
+
+    @Override
+    public void forEachValue(IntConsumer action) {
+        items.forEach(item -> action.accept(item.getValue()));
+    }
+
+    @Override
+    public List<Item> getItems() {
+        return new ArrayList<Item>(items);
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.example.demo.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+//a ring of values and dates in two primitive arrays, 12 bytes per item and no object per item for the
+//garbage collector to trace; every operation takes the lock, for O(1) except when the ring grows
+public class PackedItemStore implements ItemStore {
+
+    static final private int initialCapacity = 1024;
+
+    private int[] values = new int[initialCapacity];
+
+    private long[] dates = new long[initialCapacity];
+
+    //index of the head, and number of items; the capacity is always a power of 2
+    private int head = 0;
+
+    private int count = 0;
+
+    @Override
+    public synchronized void add(int value, long date, int priority) {
+        if (count == values.length) {
+            grow();
+        }
+        int at = (head + count) & (values.length - 1);
+        values[at] = value;
+        dates[at] = date;
+        count++;
+    }
+
+    @Override
+    public synchronized Item take(boolean stack) {
+        return stack ? pollLast() : pollFirst();
+    }
+
+    @Override
+    public synchronized Item pollExpired(long deadline) {
+        return (count == 0 || dates[head] > deadline) ? null : pollFirst();
+    }
+
+    @Override
+    public synchronized long peekOldestDate() {
+        return (count == 0) ? -1 : dates[head];
+    }
+
+    @Override
+    public synchronized boolean hasVisible() {
+        return count > 0;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public boolean isPrioritized() {
+        return false;
+    }
+
+    @Override
+    public synchronized void forEachValue(IntConsumer action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(values[(head + i) & (values.length - 1)]);
+        }
+    }
+
+    @Override
+    public synchronized List<Item> getItems() {
+        List<Item> items = new ArrayList<Item>(count);
+        for (int i = 0; i < count; i++) {
+            int at = (head + i) & (values.length - 1);
+            items.add(new Item(values[at], dates[at]));
+        }
+        return items;
+    }
+
+    private Item pollFirst() {
+        if (count == 0) {
+            return null;
+        }
+        Item item = new Item(values[head], dates[head]);
+        head = (head + 1) & (values.length - 1);
+        count--;
+        return item;
+    }
+
+    private Item pollLast() {
+        if (count == 0) {
+            return null;
+        }
+        count--;
+        int at = (head + count) & (values.length - 1);
+        return new Item(values[at], dates[at]);
+    }
+
+    //doubles the ring, moving the items to the start
+    private void grow() {
+        int[] newValues = new int[values.length * 2];
+        long[] newDates = new long[dates.length * 2];
+        int first = Math.min(count, values.length - head);
+        System.arraycopy(values, head, newValues, 0, first);
+        System.arraycopy(values, 0, newValues, first, count - first);
+        System.arraycopy(dates, head, newDates, 0, first);
+        System.arraycopy(dates, 0, newDates, first, count - first);
+        values = newValues;
+        dates = newDates;
+        head = 0;
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.example.demo.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+//items taken by priority, highest first and in the order they were produced within a priority, and only once
+//their date has come; each item is in two indexed heaps at a time, so that it can be removed from the other
+//one in O(log n): visible items in one by priority, delayed ones in one by date, and all of them in one by
+//date for expiry; every operation takes the lock and is O(log n), moving the items that became visible first
+public class PriorityItemStore implements ItemStore {
+
+    static final private int VISIBLE = 0;
+
+    static final private int DELAYED = 1;
+
+    static final private int ALL = 2;
+
+    static final private Comparator<Node> byDate = Comparator.<Node>comparingLong(node -> node.date)
+            .thenComparingInt(node -> node.value);
+
+    private Heap visible = new Heap(VISIBLE, Comparator.<Node>comparingInt(node -> node.priority).reversed()
+            .thenComparingInt(node -> node.value));
+
+    private Heap delayed = new Heap(DELAYED, byDate);
+
+    private Heap all = new Heap(ALL, byDate);
+
+    @Override
+    public synchronized void add(int value, long date, int priority) {
+        Node node = new Node(value, date, priority);
+        all.add(node);
+        if (date <= System.currentTimeMillis()) {
+            visible.add(node);
+        }
+        else {
+            delayed.add(node);
+        }
+    }
+
+    @Override
+    public synchronized Item take(boolean stack) {
+        reveal();
+        Node node = visible.peek();
+        if (node == null) {
+            return null;
+        }
+        visible.remove(node);
+        all.remove(node);
+        return node.toItem();
+    }
+
+    @Override
+    public synchronized Item pollExpired(long deadline) {
+        Node node = all.peek();
+        if (node == null || node.date > deadline) {
+            return null;
+        }
+        all.remove(node);
+        (node.at[VISIBLE] >= 0 ? visible : delayed).remove(node);
+        return node.toItem();
+    }
+
+    @Override
+    public synchronized long peekOldestDate() {
+        Node node = all.peek();
+        return (node == null) ? -1 : node.date;
+    }
+
+    @Override
+    public synchronized boolean hasVisible() {
+        reveal();
+        return visible.size > 0;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return all.size == 0;
+    }
+
+    @Override
+    public boolean isPrioritized() {
+        return true;
+    }
+
+    //in no particular order
+    @Override
+    public synchronized void forEachValue(IntConsumer action) {
+        for (int i = 0; i < all.size; i++) {
+            action.accept(all.nodes[i].value);
+        }
+    }
+
+    @Override
+    public synchronized List<Item> getItems() {
+        List<Item> items = new ArrayList<Item>(all.size);
+        for (int i = 0; i < all.size; i++) {
+            items.add(all.nodes[i].toItem());
+        }
+        return items;
+    }
+
+    private void reveal() {
+        long now = System.currentTimeMillis();
+        Node node;
+        while ((node = delayed.peek()) != null && node.date <= now) {
+            delayed.remove(node);
+            visible.add(node);
+        }
+    }
+
+    static private class Node {
+
+        int value;
+
+        long date;
+
+        int priority;
+
+        //index in each heap, -1 if not in it
+        int[] at = {-1, -1, -1};
+
+        Node(int value, long date, int priority) {
+            this.value = value;
+            this.date = date;
+            this.priority = priority;
+        }
+
+        Item toItem() {
+            return new Item(value, date, priority);
+        }
+
+    }
+
+    //binary min-heap that keeps the index of every node in it up to date in node.at[slot]
+    static private class Heap {
+
+        int slot;
+
+        Comparator<Node> order;
+
+        Node[] nodes = new Node[16];
+
+        int size = 0;
+
+        Heap(int slot, Comparator<Node> order) {
+            this.slot = slot;
+            this.order = order;
+        }
+
+        Node peek() {
+            return (size == 0) ? null : nodes[0];
+        }
+
+        void add(Node node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            set(size, node);
+            up(size++);
+        }
+
+        void remove(Node node) {
+            int i = node.at[slot];
+            size--;
+            if (i != size) {
+                set(i, nodes[size]);
+                nodes[size] = null;
+                down(i);
+                up(i);
+            }
+            else {
+                nodes[size] = null;
+            }
+            node.at[slot] = -1;
+        }
+
+        private void up(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (order.compare(nodes[i], nodes[parent]) >= 0) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                int least = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && order.compare(nodes[left], nodes[least]) < 0) {
+                    least = left;
+                }
+                if (right < size && order.compare(nodes[right], nodes[least]) < 0) {
+                    least = right;
+                }
+                if (least == i) {
+                    break;
+                }
+                swap(i, least);
+                i = least;
+            }
+        }
+
+        private void swap(int i, int j) {
+            Node node = nodes[i];
+            set(i, nodes[j]);
+            set(j, node);
+        }
+
+        private void set(int i, Node node) {
+            nodes[i] = node;
+            node.at[slot] = i;
+        }
+
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.example.demo.Model;
+
+//a consumer parked until an item is produced
+public interface Waiter {
+
+    //false if the waiter is gone already, so that the wakeup goes to the next one; a waiter that finds nothing
+    //left to take goes back in line with Container.requeue, rather than addWaiter, which could wake it again
+    //right away
+    boolean wake();
+
+}
@@ -0,0 +1,83 @@
+package com.example.demo.Controller;
+
+import com.example.demo.Model.Container;
+import com.example.demo.Model.Containers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ConsumeControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String name = "tests-" + UUID.randomUUID();
+
+    private Container container = Containers.get(name);
+
+    @Test
+    public void testWake() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/" + name + "/consume").param("waitMs", "5000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        int value = container.produce().getValue();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("an item consumed"))
+                .andExpect(jsonPath("$.change.value").value(value));
+        assertTrue(container.isEmpty());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/" + name + "/consume").param("waitMs", "100"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockAsyncContext context = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("container is empty now"));
+
+        //the waiter is gone, so the next item stays
+        container.produce();
+        assertEquals(1, container.getListOfValue().size());
+    }
+
+    @Test
+    public void testAbort() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/" + name + "/consume").param("waitMs", "5000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockAsyncContext context = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {  //the client went away
+            listener.onError(new AsyncEvent(context, new IOException("Broken pipe")));
+            listener.onComplete(new AsyncEvent(context));
+        }
+
+        container.produce();
+        assertEquals(1, container.getListOfValue().size());
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.example.demo.Controller;
+
+import com.example.demo.Model.Container;
+import com.example.demo.Model.Containers;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StreamControllerTests {
+
+    private Container container = Containers.get("tests-" + UUID.randomUUID());
+
+    @Test
+    public void testSlowSubscriberDoesNotDelayOthers() throws Exception {
+        container.produce();
+        CountDownLatch release = new CountDownLatch(1);
+        List<StalledEmitter> stalled = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {  //more than there used to be senders
+            StalledEmitter emitter = new StalledEmitter(release);
+            stalled.add(emitter);
+            StreamController.subscribe(container, emitter, -1);
+        }
+        RecordingEmitter recording = new RecordingEmitter();
+        StreamController.subscribe(container, recording, -1);
+        try {
+            String snapshot = recording.events.poll(2, TimeUnit.SECONDS);
+            assertNotNull(snapshot);
+            assertTrue(snapshot, snapshot.contains("event:snapshot"));
+            for (StalledEmitter emitter : stalled) {
+                assertTrue(emitter.sending.await(2, TimeUnit.SECONDS));
+            }
+
+            //a change every tick, more than a stalled subscriber can queue
+            long deadline = System.currentTimeMillis() + 6000;
+            int changes = 0;
+            while (stalled.stream().anyMatch(emitter -> emitter.completed.getCount() > 0)
+                    && System.currentTimeMillis() < deadline) {
+                int value = container.produce().getValue();
+                String event = recording.events.poll(1, TimeUnit.SECONDS);
+                assertNotNull("delayed by the stalled subscribers", event);
+                assertTrue(event, event.contains("event:changes") && event.contains("\"value\":" + value));
+                changes++;
+                if (changes == 40) {  //let the stalled ones find out they were closed
+                    release.countDown();
+                }
+            }
+            for (StalledEmitter emitter : stalled) {
+                assertTrue("slow subscriber not closed", emitter.completed.await(2, TimeUnit.SECONDS));
+            }
+        }
+        finally {
+            release.countDown();
+            recording.gone = true;
+        }
+    }
+
+    //more subscribers being sent to than there are senders: the others wait for one, rather than being closed
+    @Test
+    public void testBusySendersDoNotCloseSubscribers() throws Exception {
+        container.produce();
+        CountDownLatch release = new CountDownLatch(1);
+        List<StalledEmitter> stalled = new ArrayList<>();
+        RecordingEmitter recording = new RecordingEmitter();
+        try {
+            for (int i = 0; i < StreamController.maxSenders; i++) {
+                StalledEmitter emitter = new StalledEmitter(release);
+                stalled.add(emitter);
+                StreamController.subscribe(container, emitter, -1);
+            }
+            for (StalledEmitter emitter : stalled) {
+                assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+            }
+            StreamController.subscribe(container, recording, -1);
+            int value = container.produce().getValue();
+            Thread.sleep(500);  //several ticks with no sender to take it
+            assertTrue(recording.events.isEmpty());
+            assertEquals(1, recording.completed.getCount());
+
+            release.countDown();
+            String event;
+            do {
+                event = recording.events.poll(2, TimeUnit.SECONDS);
+                assertNotNull("never sent to", event);
+            } while (!event.contains("\"value\":" + value) && !event.contains("," + value + "]")
+                    && !event.contains("[" + value + "]"));
+            assertEquals(1, recording.completed.getCount());
+        }
+        finally {
+            release.countDown();
+            recording.gone = true;
+        }
+    }
+
+    static private class StalledEmitter extends SseEmitter {
+
+        CountDownLatch release;
+
+        CountDownLatch sending = new CountDownLatch(1);
+
+        CountDownLatch completed = new CountDownLatch(1);
+
+        StalledEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+            super.complete();
+        }
+
+    }
+
+    static private class RecordingEmitter extends SseEmitter {
+
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        //unsubscribed by the next send
+        volatile boolean gone = false;
+
+        CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+            super.complete();
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            completed.countDown();
+            super.completeWithError(ex);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (gone) {
+                throw new IOException("gone");
+            }
+            StringBuilder event = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                event.append(data.getData());
+            }
+            events.add(event.toString());
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.example.demo.Controller;
+
+import com.example.demo.Model.Containers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ViewControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String name = "tests-" + UUID.randomUUID();
+
+    @Test
+    public void testReadsDoNotCreate() throws Exception {
+        mockMvc.perform(get("/api/" + name + "/view")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/" + name + "/stream")).andExpect(status().isNotFound());
+        assertNull(Containers.find(name));
+
+        mockMvc.perform(get("/api/" + name + "/produce")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/" + name + "/view"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.container.length()").value(1));
+        mockMvc.perform(get("/api/view")).andExpect(status().isOk());
+    }
+
+}
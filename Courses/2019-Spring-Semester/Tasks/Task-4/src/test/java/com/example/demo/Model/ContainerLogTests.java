@@ -0,0 +1,159 @@
+package com.example.demo.Model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ContainerLogTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Container container = Containers.get("tests-" + UUID.randomUUID());
+
+    @Test
+    public void testReplay() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        ContainerLog log = new ContainerLog(container, dir, ContainerLog.recordBytes * 4);  //a few records per segment, so that it rolls
+        log.open();
+        try {
+            container.produce(10);
+            container.consume(3);
+            log.compact();
+            container.produce();
+            container.consume();
+            container.produce(2);
+            container.putBack(container.consume(2));  //produced again after their consume
+        }
+        finally {
+            log.close();
+        }
+
+        ContainerLog.Replayed replayed = new ContainerLog(container, dir, ContainerLog.recordBytes * 4).replay();
+        assertEquals(container.getSeq(), replayed.seq);
+        assertEquals(container.getCntValue(), replayed.cntValue);
+        List<Integer> values = new ArrayList<Integer>();
+        replayed.inOrder().forEach(item -> values.add(item.getValue()));
+        assertEquals(container.getListOfValue(), values);  //the ones put back last, although their values are lower
+
+        Container restored = Containers.get("tests-" + UUID.randomUUID());
+        ContainerLog reopened = new ContainerLog(restored, dir, ContainerLog.recordBytes * 4);
+        reopened.open();
+        reopened.close();
+        assertEquals(container.getListOfValue(), restored.getListOfValue());
+        restored.consume(restored.getMaxBatch());
+        container.consume(container.getMaxBatch());
+    }
+
+    @Test
+    public void testReplayTornAndTruncatedTail() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        ContainerLog log = new ContainerLog(container, dir, 4096);
+        log.open();
+        Event lost;
+        try {
+            container.produce(5);
+            container.consume();
+            lost = container.produce();
+        }
+        finally {
+            log.close();
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(file -> file.toString().endsWith(".seg")).sorted().reduce((a, b) -> b).get();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        ByteBuffer records = ByteBuffer.wrap(bytes);
+        int last = -1;
+        for (int at = 0; at < bytes.length; at += ContainerLog.recordBytes) {
+            if (records.getLong(at) != 0) {
+                last = at;
+            }
+        }
+        assertEquals(lost.getSeq(), records.getLong(last));
+
+        //the seq of the last record made it to disk, its value did not
+        bytes[last + 20] ^= 0x5A;
+        Files.write(segment, bytes);
+        ContainerLog.Replayed replayed = new ContainerLog(container, dir, 4096).replay();
+        assertEquals(lost.getSeq() - 1, replayed.seq);
+        assertFalse(replayed.items.containsKey(lost.getValue()));
+        assertEquals(4, replayed.items.size());
+
+        //and a file cut in the middle of a record
+        Files.write(segment, Arrays.copyOf(bytes, last + ContainerLog.recordBytes / 2));
+        replayed = new ContainerLog(container, dir, 4096).replay();
+        assertEquals(lost.getSeq() - 1, replayed.seq);
+        assertEquals(4, replayed.items.size());
+        container.consume(container.getMaxBatch());
+    }
+
+    //named and prioritized containers too, each one from its own log, here under another name as if by another
+    //instance started on a copy of the dir
+    @Test
+    public void testEveryContainerRestored() throws Exception {
+        Path dir = folder.newFolder("logs").toPath();
+        String named = "tests-" + UUID.randomUUID();
+        String prioritized = "tests-" + UUID.randomUUID();
+        ContainerLogs logs = new ContainerLogs(dir, 4096);
+        logs.open();
+        List<Integer> values;
+        try {
+            Containers.create(named, 3, 20000).produce(4);
+            Containers.get(named).consume();
+            values = Containers.get(named).getListOfValue();
+            Container priority = Containers.create(prioritized, 5, 30000, true);
+            priority.produce(1, 0);
+            priority.produce(7, 0);
+            priority.produce(9, 24 * 60 * 60 * 1000);  //not visible for a day
+
+            String evicted = "tests-" + UUID.randomUUID();
+            Containers.create(evicted, 5, 30000);
+            assertTrue(Files.isDirectory(dir.resolve(evicted)));
+            Containers.evictIdle(System.currentTimeMillis() + 1);
+            assertFalse(Files.exists(dir.resolve(evicted)));  //empty, so its log goes with it
+        }
+        finally {
+            logs.close();
+        }
+
+        Path restarted = folder.newFolder("restarted").toPath();
+        Files.move(dir.resolve(named), restarted.resolve(named + "-restarted"));
+        Files.move(dir.resolve(prioritized), restarted.resolve(prioritized + "-restarted"));
+        logs = new ContainerLogs(restarted, 4096);
+        logs.open();
+        try {
+            Container container = Containers.find(named + "-restarted");
+            assertEquals(3, container.getThreshold());
+            assertEquals(20000, container.getTimeout());
+            assertFalse(container.isPrioritized());
+            assertEquals(values, container.getListOfValue());
+            assertEquals(5, container.produce().getValue());  //values are not handed out again
+            container.consume(container.getMaxBatch());
+
+            Container priority = Containers.find(prioritized + "-restarted");
+            assertTrue(priority.isPrioritized());
+            assertEquals(2, priority.consume().getValue());  //priority 7 first
+            assertEquals(1, priority.consume().getValue());
+            assertNull(priority.consume());  //still delayed
+            assertEquals(1, priority.getListOfValue().size());
+        }
+        finally {
+            logs.close();
+        }
+        Containers.get(named).consume(Containers.get(named).getMaxBatch());
+    }
+
+}
@@ -0,0 +1,437 @@
+package com.example.demo.Model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+public class ContainerTests {
+
+    private static final int THREADS = 8;
+    private static final int ITEMS_PER_THREAD = 500;
+
+    private Container container = Containers.get("tests-" + UUID.randomUUID());
+
+    @Test
+    public void testConcurrentProduceAndConsume() throws Exception {
+        int before = container.getListOfValue().size();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < ITEMS_PER_THREAD; i++)
+                        container.produce();
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+
+            List<Integer> values = container.getListOfValue();
+            assertEquals(before + THREADS * ITEMS_PER_THREAD, values.size());
+            Set<Integer> distinct = new HashSet<>(values);
+            assertEquals(values.size(), distinct.size());
+
+            futures.clear();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < ITEMS_PER_THREAD; i++)
+                        assertNotNull(container.consume());
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+            assertEquals(before, container.getListOfValue().size());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testChangesSince() {
+        long since = container.getSeq();
+        Event produced = container.produce();
+        Event consumed = container.consume();
+        assertNotNull(consumed);
+
+        List<Event> changes = container.getChangesSince(since);
+        assertEquals(2, changes.size());
+        assertEquals(Event.PRODUCE, changes.get(0).getType());
+        assertEquals(produced.getValue(), changes.get(0).getValue());
+        assertEquals(Event.CONSUME, changes.get(1).getType());
+        assertEquals(since + 2, changes.get(1).getSeq());
+        assertTrue(container.getChangesSince(container.getSeq()).isEmpty());
+        assertNull(container.getChangesSince(container.getSeq() + 1));
+    }
+
+    @Test
+    public void testBatch() {
+        container.consume(container.getMaxBatch());
+        long since = container.getSeq();
+
+        List<Event> produced = container.produce(8);
+        assertEquals(8, produced.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(since + 1 + i, produced.get(i).getSeq());
+            assertEquals(produced.get(0).getValue() + i, produced.get(i).getValue());
+        }
+
+        //a stack down to the threshold, a queue after that
+        List<Event> consumed = container.consume(container.getMaxBatch());
+        int first = produced.get(0).getValue();
+        int[] expected = {first + 7, first + 6, first + 5, first + 4, first, first + 1, first + 2, first + 3};
+        assertEquals(expected.length, consumed.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Event.CONSUME, consumed.get(i).getType());
+            assertEquals(expected[i], consumed.get(i).getValue());
+        }
+        assertTrue(container.consume(1).isEmpty());
+        assertEquals(16, container.getChangesSince(since).size());
+    }
+
+    @Test
+    public void testWaiters() {
+        container.consume(container.getMaxBatch());
+        List<String> woken = new ArrayList<>();
+        container.addWaiter(() -> false);  //gone already, passes its wakeup on
+        container.addWaiter(() -> woken.add("first"));
+        container.addWaiter(() -> woken.add("second"));
+        assertTrue(woken.isEmpty());
+
+        container.produce();
+        assertEquals(1, woken.size());
+        assertEquals("first", woken.get(0));
+
+        //already non-empty: the first in line is woken right away, and each waiter only once
+        container.addWaiter(() -> woken.add("third"));
+        assertEquals(2, woken.size());
+        assertEquals("second", woken.get(1));
+        container.produce(2);
+        assertEquals(3, woken.size());
+        assertEquals("third", woken.get(2));
+        container.produce();
+        assertEquals(3, woken.size());
+        container.consume(container.getMaxBatch());
+    }
+
+    @Test
+    public void testWaiterRequeuedOnce() {
+        container.consume(container.getMaxBatch());
+        List<String> woken = new ArrayList<>();
+        Waiter late = new Waiter() {
+            @Override
+            public boolean wake() {
+                if (woken.isEmpty()) {  //another consumer took the item first
+                    woken.add("nothing left");
+                    container.consume();
+                    container.requeue(this);
+                    return true;
+                }
+                woken.add("consumed");
+                return container.consume() != null;
+            }
+        };
+        container.addWaiter(late);
+        assertEquals(1, container.countWaiters());
+        container.produce();
+        assertEquals(Collections.singletonList("nothing left"), woken);
+        assertEquals(1, container.countWaiters());
+        container.produce();
+        assertEquals(Arrays.asList("nothing left", "consumed"), woken);
+        assertEquals(0, container.countWaiters());
+        assertTrue(container.isEmpty());
+    }
+
+    @Test
+    public void testPutBack() {
+        container.consume(container.getMaxBatch());
+        List<String> woken = new ArrayList<>();
+        Event produced = container.produce();
+        List<Event> consumed = container.consume(1);
+        container.addWaiter(() -> woken.add("waiter"));
+
+        long since = container.getSeq();
+        container.putBack(consumed);
+        assertEquals(1, woken.size());
+        assertEquals(Collections.singletonList(produced.getValue()), container.getListOfValue());
+        List<Event> changes = container.getChangesSince(since);
+        assertEquals(Event.PRODUCE, changes.get(0).getType());
+        assertEquals(produced.getValue(), changes.get(0).getValue());
+        container.consume(container.getMaxBatch());
+    }
+
+    @Test
+    public void testNamedContainers() {
+        String name = "tests-" + UUID.randomUUID();
+        Container stack = Containers.create(name, 1, 30 * 1000);
+        assertSame(stack, Containers.get(name));
+        assertSame(stack, Containers.create(name, 5, 1000));
+        assertEquals(1, stack.getThreshold());
+
+        stack.produce(3);
+        container.produce(3);
+        assertEquals(3, stack.consume().getValue());
+        assertEquals(1, container.consume().getValue());
+        assertEquals(4, stack.getSeq());
+        assertEquals(4, container.getSeq());
+        assertSame(Containers.getDefault(), Containers.get(Containers.DEFAULT));
+    }
+
+    @Test
+    public void testChangesKeptGrowOnDemand() {
+        assertEquals(16, container.getChangesCapacity());
+        container.produce(100);
+        assertEquals(128, container.getChangesCapacity());
+        List<Event> changes = container.getChangesSince(0);
+        assertEquals(100, changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            assertEquals(i + 1, changes.get(i).getSeq());
+        }
+
+        int kept = container.getMaxBatch();
+        container.produce(kept);
+        assertEquals(kept, container.getChangesCapacity());
+        assertEquals(kept, container.getChangesSince(container.getSeq() - kept).size());
+        assertNull(container.getChangesSince(container.getSeq() - kept - 1));
+        container.consume(kept);
+        container.consume(100);
+    }
+
+    @Test
+    public void testIdleContainersEvicted() {
+        String name = "tests-" + UUID.randomUUID();
+        Container stack = Containers.create(name, 1, 30 * 1000);
+        stack.produce();
+        Containers.evictIdle(System.currentTimeMillis() + 1);
+        assertSame(stack, Containers.find(name));  //not empty
+        stack.consume();
+        Containers.evictIdle(System.currentTimeMillis() + 1);
+        assertNull(Containers.find(name));
+        assertNotNull(Containers.find(Containers.DEFAULT));
+
+        //whoever still holds it is handed on to a new one with the same settings
+        List<Integer> woken = new ArrayList<>();
+        stack.addWaiter(() -> woken.add(stack.current().consume().getValue()));
+        Event produced = stack.produce();
+        Container successor = Containers.find(name);
+        assertNotSame(stack, successor);
+        assertSame(successor, stack.current());
+        assertEquals(1, successor.getThreshold());
+        assertEquals(Collections.singletonList(produced.getValue()), woken);
+        assertTrue(successor.isEmpty());
+
+        //nor is a watched one evicted
+        assertSame(successor, stack.watch());
+        Containers.evictIdle(System.currentTimeMillis() + 1);
+        assertSame(successor, Containers.find(name));
+        successor.unwatch();
+        Containers.evictIdle(System.currentTimeMillis() + 1);
+        assertNull(Containers.find(name));
+    }
+
+    @Test
+    public void testMaxContainersUnderConcurrentCreates() throws Exception {
+        int room = 10;
+        Containers.configure(LinkedItemStore::new, 5, 30 * 1000, 4096, Containers.count() + room, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    int created = 0;
+                    for (int i = 0; i < room; i++) {
+                        if (Containers.get("tests-" + UUID.randomUUID()) != null)
+                            created++;
+                    }
+                    return created;
+                }));
+            }
+            int created = 0;
+            for (Future<Integer> future : futures)
+                created += future.get();
+            assertEquals(room, created);
+        }
+        finally {
+            pool.shutdownNow();
+            Containers.configure(LinkedItemStore::new, 5, 30 * 1000, 4096, 100000, 0);
+        }
+    }
+
+    @Test
+    public void testPrioritizedContainer() throws Exception {
+        Container prioritized = Containers.create("tests-" + UUID.randomUUID(), 5, 30 * 1000, true);
+        assertTrue(prioritized.isPrioritized());
+        prioritized.produce(1, 0);
+        Event urgent = prioritized.produce(9, 0);
+        Event delayed = prioritized.produce(10, 200);
+
+        List<String> woken = new ArrayList<>();
+        assertEquals(urgent.getValue(), prioritized.consume().getValue());
+        prioritized.consume();
+        prioritized.addWaiter(() -> woken.add("waiter"));
+        assertNull(prioritized.consume());
+        assertTrue(woken.isEmpty());
+
+        Thread.sleep(500);  //woken once the delayed item is visible
+        assertEquals(1, woken.size());
+        assertEquals(delayed.getValue(), prioritized.consume().getValue());
+    }
+
+    //an item due before the pending run, which was scheduled for a delayed one, is expired on time all the same
+    @Test
+    public void testExpiryBeforeDelayedItem() throws Exception {
+        ScheduledExecutorService expiry = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Container prioritized = new Container(new PriorityItemStore(), 5, 300, 64, expiry);
+            Event delayed = prioritized.produce(0, 24 * 60 * 60 * 1000);
+            prioritized.produce(0, 0);
+            Thread.sleep(500);
+            assertEquals(Collections.singletonList(delayed.getValue()), prioritized.getListOfValue());
+            assertTrue(prioritized.isExpiryScheduled());  //for the delayed one
+        }
+        finally {
+            expiry.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        ScheduledExecutorService expiry = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Container expiring = new Container(new LinkedItemStore(), 5, 300, 64, expiry);
+            assertFalse(expiring.isExpiryScheduled());
+            Event first = expiring.produce();
+            assertTrue(expiring.isExpiryScheduled());
+            Thread.sleep(150);
+            Event second = expiring.produce();
+
+            //the first one is gone on schedule, and the task re-armed for the second one
+            Thread.sleep(250);
+            assertEquals(Collections.singletonList(second.getValue()), expiring.getListOfValue());
+            assertTrue(expiring.isExpiryScheduled());
+            Thread.sleep(250);
+            assertTrue(expiring.isEmpty());
+            assertFalse(expiring.isExpiryScheduled());
+
+            List<Event> changes = expiring.getChangesSince(second.getSeq());
+            assertEquals(2, changes.size());
+            for (int i = 0; i < 2; i++) {
+                assertEquals(Event.EXPIRE, changes.get(i).getType());
+                assertEquals((i == 0 ? first : second).getValue(), changes.get(i).getValue());
+            }
+        }
+        finally {
+            expiry.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testChangesReplayConcurrently() throws Exception {
+        int operations = 20000;
+        ScheduledExecutorService expiry = Executors.newSingleThreadScheduledExecutor();
+        Container replayed = new Container(new LinkedItemStore(), 5, 60 * 1000, 16 * operations, expiry);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                boolean producer = t % 2 == 0;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < operations; i++) {
+                        if (producer)
+                            replayed.produce();
+                        else
+                            replayed.consume();
+                    }
+                }));
+            }
+            List<Container.Snapshot> snapshots = new ArrayList<>();
+            Future<?> viewer = pool.submit(() -> {
+                while (futures.stream().anyMatch(future -> !future.isDone()) && snapshots.size() < 1000)
+                    snapshots.add(replayed.getSnapshot());
+            });
+            for (Future<?> future : futures)
+                future.get();
+            viewer.get();
+            snapshots.add(replayed.getSnapshot());
+
+            //applied in seq order, every consume finds the item of its produce, and every snapshot
+            //is exactly the changes up to its seq
+            List<Event> changes = replayed.getChangesSince(0);
+            assertNotNull(changes);
+            assertEquals(replayed.getSeq(), changes.size());
+            Set<Integer> values = new HashSet<>();
+            int next = 0;
+            for (Container.Snapshot snapshot : snapshots) {
+                for (; next < snapshot.getSeq(); next++) {
+                    Event change = changes.get(next);
+                    assertEquals(next + 1, change.getSeq());
+                    if (Event.PRODUCE.equals(change.getType()))
+                        assertTrue(values.add(change.getValue()));
+                    else
+                        assertTrue("consumed before produced: " + change.getValue(), values.remove(change.getValue()));
+                }
+                assertEquals(values, new HashSet<>(snapshot.getValues()));
+            }
+            assertEquals(values, new HashSet<>(replayed.getListOfValue()));
+        }
+        finally {
+            pool.shutdownNow();
+            expiry.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentBatchesAreAtomic() throws Exception {
+        ScheduledExecutorService expiry = Executors.newSingleThreadScheduledExecutor();
+        Container batched = new Container(new LinkedItemStore(), 5, 60 * 1000, 4096, expiry);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int kind = t % 3;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        List<Event> events;
+                        if (kind == 0) {
+                            events = batched.produce(8);
+                            assertEquals(8, events.size());
+                        }
+                        else if (kind == 1) {
+                            events = batched.consume(8);
+                        }
+                        else {
+                            batched.produce();
+                            batched.consume();
+                            continue;
+                        }
+                        //nothing else numbered or produced in the middle of a batch
+                        for (int k = 1; k < events.size(); k++) {
+                            assertEquals(events.get(0).getSeq() + k, events.get(k).getSeq());
+                            if (kind == 0)
+                                assertEquals(events.get(0).getValue() + k, events.get(k).getValue());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        }
+        finally {
+            pool.shutdownNow();
+            expiry.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.example.demo.Model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PackedItemStoreTests {
+
+    @Test
+    public void testLikeLinkedStore() {
+        ItemStore packed = new PackedItemStore();
+        ItemStore linked = new LinkedItemStore();
+        //moves the head around the ring and grows it while it wraps, and leaves old items to expire
+        for (int round = 0; round < 3000; round++) {
+            for (ItemStore store : new ItemStore[]{packed, linked}) {
+                store.add(round, 1000L + round, 0);
+                store.add(-round, 2000L + round, 0);
+                if (round % 3 == 0) {
+                    store.take(false);
+                }
+                else if (round % 3 == 1) {
+                    store.pollExpired(1000L + round / 2);
+                }
+                else {
+                    store.take(true);
+                }
+            }
+            assertEquals(linked.peekOldestDate(), packed.peekOldestDate());
+        }
+        assertEquals(values(linked), values(packed));
+        List<Item> items = packed.getItems();
+        assertEquals(linked.getItems().get(7).getDate(), items.get(7).getDate());
+
+        while (!linked.isEmpty()) {
+            assertEquals(linked.take(true).getValue(), packed.take(true).getValue());
+        }
+        assertTrue(packed.isEmpty());
+        assertNull(packed.take(false));
+        assertEquals(-1, packed.peekOldestDate());
+    }
+
+    private static List<Integer> values(ItemStore store) {
+        List<Integer> values = new ArrayList<>();
+        store.forEachValue(values::add);
+        return values;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.example.demo.Model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PriorityItemStoreTests {
+
+    @Test
+    public void testPriorityAndDelay() {
+        long now = System.currentTimeMillis();
+        ItemStore store = new PriorityItemStore();
+        store.add(1, now, 0);
+        store.add(2, now, 5);
+        store.add(3, now + 60 * 1000, 9);  //not visible for a minute
+        store.add(4, now, 5);
+
+        assertTrue(store.hasVisible());
+        assertEquals(2, store.take(false).getValue());
+        assertEquals(4, store.take(true).getValue());
+        assertEquals(1, store.take(false).getValue());
+        assertNull(store.take(false));
+        assertFalse(store.hasVisible());
+        assertFalse(store.isEmpty());
+        assertEquals(now + 60 * 1000, store.peekOldestDate());
+
+        //expiry goes by date, delayed or not
+        assertNull(store.pollExpired(now));
+        assertEquals(3, store.pollExpired(now + 60 * 1000).getValue());
+        assertTrue(store.isEmpty());
+        assertEquals(-1, store.peekOldestDate());
+    }
+
+    @Test
+    public void testLikeSortedList() {
+        Random random = new Random(42);
+        long past = System.currentTimeMillis() - 1000 * 1000;
+        ItemStore store = new PriorityItemStore();
+        List<Item> expected = new ArrayList<>();
+        Comparator<Item> byPriority = Comparator.comparingInt(Item::getPriority).reversed()
+                .thenComparingInt(Item::getValue);
+        Comparator<Item> byDate = Comparator.comparingLong(Item::getDate).thenComparingInt(Item::getValue);
+        for (int value = 0; value < 5000; value++) {
+            long date = past + random.nextInt(1000);
+            int priority = random.nextInt(10);
+            store.add(value, date, priority);
+            expected.add(new Item(value, date, priority));
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                Item best = expected.stream().min(byPriority).get();
+                expected.remove(best);
+                assertEquals(best.getValue(), store.take(false).getValue());
+            }
+            else if (operation == 1) {
+                long deadline = past + random.nextInt(1000);
+                Item oldest = expected.stream().min(byDate).get();
+                Item item = store.pollExpired(deadline);
+                if (oldest.getDate() <= deadline) {
+                    expected.remove(oldest);
+                    assertEquals(oldest.getValue(), item.getValue());
+                }
+                else {
+                    assertNull(item);
+                }
+            }
+        }
+        assertEquals(expected.size(), store.getItems().size());
+        expected.sort(byPriority);
+        for (Item item : expected) {
+            assertEquals(item.getValue(), store.take(false).getValue());
+        }
+        assertTrue(store.isEmpty());
+    }
+
+}